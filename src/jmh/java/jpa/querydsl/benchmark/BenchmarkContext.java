@@ -0,0 +1,90 @@
+package jpa.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.QueryDslApplication;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트. 임베디드 H2(메모리)에 memberCount 만큼 회원을 넣고 시작한다.
+ * 데이터 크기는 -p memberCount=100000 처럼 바꿀 수 있다.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    static final int TEAM_COUNT = 10;
+
+    @Param({"10000"})
+    public int memberCount;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = startApplication();
+        loadMembers();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * 임베디드 H2 로 애플리케이션을 띄운다. extraArgs 로 설정을 덮어쓸 수 있다. (--key=value)
+     */
+    static ConfigurableApplicationContext startApplication(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--sql.trace.enabled=false", // SQL 추적 끄기
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=off",
+                "--logging.level.org.hibernate.type.descriptor.sql=off"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplication(QueryDslApplication.class).run(args.toArray(String[]::new));
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void loadMembers() {
+        EntityManager em = bean(EntityManager.class);
+        TransactionTemplate tx = new TransactionTemplate(bean(PlatformTransactionManager.class));
+
+        tx.executeWithoutResult(status -> {
+            Team[] teams = new Team[TEAM_COUNT];
+            for (int i = 0; i < TEAM_COUNT; i++) {
+                teams[i] = new Team("team" + i);
+                em.persist(teams[i]);
+            }
+            for (int i = 0; i < memberCount; i++) {
+                Member member = new Member("member" + i, i % 100);
+                member.setTeam(teams[i % TEAM_COUNT]); // 팀의 memberList 는 건드리지 않는다.
+                em.persist(member);
+                if (i % 1000 == 999) {
+                    em.flush();
+                    em.clear();
+                    for (int t = 0; t < TEAM_COUNT; t++) {
+                        teams[t] = em.getReference(Team.class, teams[t].getId());
+                    }
+                }
+            }
+        });
+    }
+}
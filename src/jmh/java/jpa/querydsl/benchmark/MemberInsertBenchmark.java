@@ -0,0 +1,69 @@
+package jpa.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.repository.MemberJpaRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * MemberJpaRepository.save 처리량. idIncrementSize=1 은 insert 마다 시퀀스를 호출하던 예전 방식과 같다.
+ * 결과는 insert 1건 기준(ops = 회원 수)이다.
+ */
+@State(Scope.Benchmark)
+public class MemberInsertBenchmark {
+
+    private static final int MEMBERS_PER_TX = 1000;
+
+    @Param({"1", "100", "1000"})
+    public int idIncrementSize;
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private EntityManager em;
+    private TransactionTemplate tx;
+    private Long teamId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startApplication(
+                "--spring.jpa.properties.app.id.member.increment_size=" + idIncrementSize);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        em = context.getBean(EntityManager.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        teamId = tx.execute(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            return team.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS_PER_TX)
+    public void save() {
+        tx.executeWithoutResult(status -> {
+            Team team = em.getReference(Team.class, teamId);
+            for (int i = 0; i < MEMBERS_PER_TX; i++) {
+                Member member = new Member("member" + i, i % 100);
+                member.setTeam(team);
+                memberJpaRepository.save(member);
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package jpa.querydsl.benchmark;
+
+import jpa.querydsl.Dto.MemberCursorPage;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * 페이징 방식 비교: fetchResults(searchPageSimple) vs PageableExecutionUtils(searchPageComplex)
+ * vs count(*) over()(searchPageWindowed) vs Slice vs 커서(searchAfter). page 로 조회 깊이를 바꿀 수 있다.
+ */
+@State(Scope.Benchmark)
+public class MemberPagingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "200"})
+    public int page;
+
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+    private Pageable pageable;
+    private String cursor;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberRepository = context.bean(MemberRepository.class);
+        condition = new MemberSearchCondition();
+        pageable = PageRequest.of(page, PAGE_SIZE);
+
+        // 커서 방식은 같은 깊이까지 미리 넘겨 두고 그 다음 페이지를 잰다.
+        for (int i = 0; i < page; i++) {
+            cursor = memberRepository.searchAfter(condition, cursor, PAGE_SIZE).getNextCursor();
+        }
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> fetchResults() {
+        return memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> pageableExecutionUtils() {
+        return memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> windowedCount() {
+        return memberRepository.searchPageWindowed(condition, pageable);
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> slice() {
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    @Benchmark
+    public MemberCursorPage keyset() {
+        return memberRepository.searchAfter(condition, cursor, PAGE_SIZE);
+    }
+}
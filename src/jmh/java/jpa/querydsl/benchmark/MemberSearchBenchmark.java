@@ -0,0 +1,54 @@
+package jpa.querydsl.benchmark;
+
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.repository.MemberJpaRepository;
+import jpa.querydsl.repository.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * 동적 쿼리 작성 방식 비교: BooleanBuilder(searchByBuilder) vs where 파라미터(search) vs 쿼리 템플릿 캐시(searchByTemplate)
+ */
+@State(Scope.Benchmark)
+public class MemberSearchBenchmark {
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        memberJpaRepository = context.bean(MemberJpaRepository.class);
+        memberRepository = context.bean(MemberRepository.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> booleanBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> whereParameter() {
+        return memberJpaRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> customRepositoryWhereParameter() {
+        return memberRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> cachedTemplate() {
+        return memberRepository.searchByTemplate(condition);
+    }
+}
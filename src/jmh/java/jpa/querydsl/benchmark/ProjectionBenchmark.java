@@ -0,0 +1,66 @@
+package jpa.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jpa.querydsl.Dto.MemberDto;
+import jpa.querydsl.Dto.QMemberDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+import static jpa.querydsl.Entity.QMember.member;
+
+/**
+ * DTO 프로젝션 방식 비교: setter(bean) vs 필드(fields) vs 생성자(constructor) vs @QueryProjection
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int LIMIT = 1000;
+
+    private JPAQueryFactory queryFactory;
+
+    @Setup
+    public void setUp(BenchmarkContext context) {
+        queryFactory = context.bean(JPAQueryFactory.class);
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields() {
+        return queryFactory
+                .select(Projections.fields(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class, member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(LIMIT)
+                .fetch();
+    }
+}
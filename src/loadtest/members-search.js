@@ -0,0 +1,67 @@
+// 회원 검색 API 부하 테스트 (k6 - https://k6.io)
+//
+// 플랫폼 스레드(기본)와 가상 스레드(virtual 프로파일)를 같은 조건으로 비교한다.
+//   0) 데이터    : datagen 프로파일로 미리 넣어둔다. (회원 수가 적으면 DB 대기가 생기지 않는다) ~/queryDSL-datagen 에 들어간다.
+//   1) 기본      : ./gradlew bootRun --args='--spring.profiles.active=default --spring.datasource.url=jdbc:h2:tcp://localhost/~/queryDSL-datagen --spring.jpa.hibernate.ddl-auto=none'
+//   2) 가상 스레드: ./gradlew bootRun -Pjava21 --args='--spring.profiles.active=virtual --spring.datasource.url=jdbc:h2:tcp://localhost/~/queryDSL-datagen --spring.jpa.hibernate.ddl-auto=none'
+//   각각 k6 run -e BASE_URL=http://localhost:8080 src/loadtest/members-search.js --summary-export=<결과>.json
+//   (ddl-auto=none 이 없으면 기동할 때 테이블을 다시 만든다. local 프로파일은 샘플 데이터를 넣으므로 쓰지 않는다)
+//
+// 두 실행의 http_req_duration p95/p99, http_reqs(처리량), 503 비율(member_rejected)을 비교한다.
+// VUS 를 커넥션 풀 크기의 몇 배로 올려가면서 기본 모드의 톰캣 스레드(200개)가 모두 JDBC 에서 막히는 지점을 찾는다.
+// 이 비교는 아직 돌리지 않았다. (k6 와 JDK 21 이 있는 환경이 필요하다) 그래서 virtual 프로파일이 빠르다는 근거는 없고,
+// 기본 실행은 플랫폼 스레드 그대로다. 돌리면 두 요약(json)과 환경(코어 수, 풀 크기, 회원 수)을 src/loadtest 에 같이 남긴다.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TEAMS = parseInt(__ENV.TEAMS || '1000');
+
+const rejected = new Rate('member_rejected');
+
+export const options = {
+    scenarios: {
+        search: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: parseInt(__ENV.VUS || '400') },
+                { duration: __ENV.DURATION || '2m', target: parseInt(__ENV.VUS || '400') },
+                { duration: '10s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.05'],
+        http_req_duration: ['p(95)<1000'],
+    },
+};
+
+function randomCondition() {
+    const params = [];
+    if (Math.random() < 0.7) {
+        params.push(`teamName=team${Math.floor(Math.random() * TEAMS)}`);
+    }
+    if (Math.random() < 0.5) {
+        const ageGoe = Math.floor(Math.random() * 60);
+        params.push(`ageGoe=${ageGoe}`, `ageLoe=${ageGoe + 10}`);
+    }
+    return params.join('&');
+}
+
+export default function () {
+    const condition = randomCondition();
+    const page = Math.floor(Math.random() * 20);
+    const urls = [
+        `${BASE_URL}/v1/members?${condition}`,
+        `${BASE_URL}/v2/members?${condition}&page=${page}&size=20`,
+        `${BASE_URL}/v3/members?${condition}&page=${page}&size=20`,
+    ];
+    const res = http.get(urls[Math.floor(Math.random() * urls.length)], { tags: { name: 'members' } });
+
+    rejected.add(res.status === 503);
+    check(res, {
+        'status is 200 or 503': (r) => r.status === 200 || r.status === 503,
+    });
+}
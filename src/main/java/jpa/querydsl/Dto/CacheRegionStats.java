@@ -0,0 +1,16 @@
+package jpa.querydsl.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CacheRegionStats {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private Long puts; // hibernate.generate_statistics 를 켰을 때만 (2차 캐시 리전). 아니면 null
+    private long evictions; // 크기/TTL 초과로 밀려난 수
+    private long size;
+}
@@ -0,0 +1,28 @@
+package jpa.querydsl.Dto;
+
+import lombok.Data;
+
+/**
+ * 청크 벌크 연산의 진행 상황과 결과. 진행 중에는 지금까지 처리한 청크 기준이다.
+ */
+@Data
+public class MemberBulkResult {
+
+    private String operation;
+    private long rows;
+    private long chunks;
+    private long totalChunks;
+    private long elapsedMillis;
+
+    public MemberBulkResult(String operation, long rows, long chunks, long totalChunks, long elapsedMillis) {
+        this.operation = operation;
+        this.rows = rows;
+        this.chunks = chunks;
+        this.totalChunks = totalChunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isDone() {
+        return chunks == totalChunks;
+    }
+}
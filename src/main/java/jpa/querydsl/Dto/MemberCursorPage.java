@@ -0,0 +1,19 @@
+package jpa.querydsl.Dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MemberCursorPage {
+
+    private List<MemberTeamDto> content;
+    private String nextCursor; // 다음 페이지 요청에 그대로 넘겨주는 값 (마지막 페이지면 null)
+    private boolean hasNext;
+
+    public MemberCursorPage(List<MemberTeamDto> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
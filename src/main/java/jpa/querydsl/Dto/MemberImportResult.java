@@ -0,0 +1,21 @@
+package jpa.querydsl.Dto;
+
+import lombok.Data;
+
+@Data
+public class MemberImportResult {
+
+    private long rows;
+    private long teamsCreated;
+    private long chunks;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+
+    public MemberImportResult(long rows, long teamsCreated, long chunks, long elapsedMillis) {
+        this.rows = rows;
+        this.teamsCreated = teamsCreated;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = rows * 1000 / Math.max(1, elapsedMillis);
+    }
+}
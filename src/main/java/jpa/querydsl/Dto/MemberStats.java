@@ -0,0 +1,19 @@
+package jpa.querydsl.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class MemberStats {
+
+    private long count;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double averageAge;
+    private Map<String, Long> countByTeam;
+    private Instant snapshotAt; // 집계에 쓴 스냅샷 생성 시각
+}
@@ -2,15 +2,34 @@ package jpa.querydsl.Entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 @Entity
 @Data
 @ToString(of = {"id", "username", "age"})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+// MemberSearchCondition 의 조건(username, teamName -> team_id, age)과 검색 정렬(MemberSort)용 인덱스.
+// 뒤에 붙인 컬럼은 검색 결과 컬럼(member_id, username, age, team_id)을 인덱스만으로 읽기 위한 것이다. (member_id 는 PK 라 인덱스에 들어있다)
+@Table(indexes = {
+        // 팀 + 나이 범위. team_id 만 쓰는 조건(FK, 팀 조인)도 이 인덱스의 앞부분을 쓴다.
+        @Index(name = "idx_member_team_age", columnList = "team_id, age, username"),
+        // username 일치 (+ 나이, 팀)
+        @Index(name = "idx_member_username", columnList = "username, age, team_id"),
+        // 나이 범위만 있을 때
+        @Index(name = "idx_member_age", columnList = "age")
+})
+// 회원 조회에서 팀을 같이 가져오는 엔티티 그래프. MemberFetchPlan, MemberRepository 에서 쓴다.
+@NamedEntityGraph(name = Member.GRAPH_TEAM, attributeNodes = @NamedAttributeNode("team"))
 public class Member {
 
+    public static final String GRAPH_TEAM = "Member.team";
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_id")
+    @GenericGenerator(name = "member_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
 
@@ -2,6 +2,12 @@ package jpa.querydsl.Entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,15 +17,23 @@ import java.util.List;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Data
 @ToString(of = {"id", "name"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 거의 바뀌지 않아서 2차 캐시에 둔다.
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // 팀 이름 검색 조건
 public class Team {
 
+    public static final int MEMBER_LIST_BATCH_SIZE = 100;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_id")
+    @GenericGenerator(name = "team_id", type = PooledSequenceIdGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
 
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members")
+    @BatchSize(size = Team.MEMBER_LIST_BATCH_SIZE) // 여러 팀의 memberList 를 처음 건드릴 때 IN 쿼리 한번으로 같이 읽는다.
     @OneToMany(mappedBy = "team")
     private List<Member> memberList = new ArrayList<>();
 
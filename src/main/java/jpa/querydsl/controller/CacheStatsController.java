@@ -0,0 +1,65 @@
+package jpa.querydsl.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Dto.CacheRegionStats;
+import jpa.querydsl.repository.TeamIdResolver;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 2차 캐시 리전별 통계. 히트/미스/eviction/크기는 Caffeine 통계(application.conf 의 native-statistics)에서 가져온다.
+ * put 은 하이버네이트 통계에만 있어서 hibernate.generate_statistics 를 켰을 때만 채운다.
+ * 마지막 행은 팀 이름 -> id 캐시(TeamIdResolver). put 은 DB 에서 읽어 캐시에 넣은 수다.
+ */
+@RestController
+public class CacheStatsController {
+
+    private static final List<String> REGIONS = List.of("team", "team-members");
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final TeamIdResolver teamIdResolver;
+
+    public CacheStatsController(EntityManagerFactory emf, TeamIdResolver teamIdResolver) {
+        this.sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        this.teamIdResolver = teamIdResolver;
+    }
+
+    @GetMapping("cache/stats")
+    public List<CacheRegionStats> cacheStats(){
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheManager cacheManager = ((JCacheRegionFactory) sessionFactory.getCache().getRegionFactory()).getCacheManager();
+
+        List<CacheRegionStats> result = new ArrayList<>(REGIONS.stream()
+                .map(region -> {
+                    Cache<?, ?> cache = cacheManager.getCache(region).unwrap(Cache.class);
+                    CacheStats stats = cache.stats();
+                    return new CacheRegionStats(
+                            region,
+                            stats.hitCount(),
+                            stats.missCount(),
+                            statistics.isStatisticsEnabled() ? statistics.getDomainDataRegionStatistics(region).getPutCount() : null,
+                            stats.evictionCount(),
+                            cache.estimatedSize());
+                })
+                .toList());
+
+        CacheStats resolverStats = teamIdResolver.stats();
+        result.add(new CacheRegionStats(
+                TeamIdResolver.CACHE_NAME,
+                resolverStats.hitCount(),
+                resolverStats.missCount(),
+                teamIdResolver.puts(),
+                resolverStats.evictionCount(),
+                teamIdResolver.size()));
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+package jpa.querydsl.controller;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * 회원 API(v1~v4/members...)를 동시에 처리하는 수를 커넥션 풀에 맞춰 제한한다. (member.concurrency.enabled=true 일 때)
+ * 요청 스레드는 커넥션 1개를 잡은 채로 MemberQueryExecutor 의 쿼리(커넥션)를 기다릴 수 있으므로,
+ * 기본 제한은 풀 크기 - member.query.concurrency-limit 이다. 합이 풀 크기를 넘으면 서로 기다리다 커넥션 타임아웃이 나므로 시작하지 않는다.
+ * 가상 스레드는 요청마다 새로 생기므로 제한이 없으면 DB 가 느려질 때 전부 Hikari 커넥션 대기로 쌓인다.
+ * 자리가 날 때까지 acquire-timeout 만큼 기다리고, 그래도 없으면 503 으로 바로 돌려보낸다.
+ * 비동기로 응답하는 요청(export 스트리밍, 비동기 검색)은 doFilter 가 먼저 돌아오므로 비동기 처리가 끝날 때 반납한다.
+ */
+@Component
+@ConditionalOnProperty(name = "member.concurrency.enabled", havingValue = "true")
+public class MemberConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern MEMBER_API = Pattern.compile("^/v\\d+/members(/.*)?$");
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+
+    public MemberConcurrencyLimitFilter(@Value("${member.concurrency.limit:0}") int limit,
+                                        @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                        @Value("${member.query.concurrency-limit:8}") int queryConcurrencyLimit,
+                                        @Value("${member.concurrency.acquire-timeout:2s}") Duration acquireTimeout) {
+        int permits = limit > 0 ? limit : poolSize - queryConcurrencyLimit;
+        if (permits < 1 || permits + queryConcurrencyLimit > poolSize) {
+            throw new IllegalStateException("member.concurrency.limit(" + permits + ") + member.query.concurrency-limit("
+                    + queryConcurrencyLimit + ") 가 커넥션 풀 크기(" + poolSize + ")를 넘습니다.");
+        }
+        this.permits = new Semaphore(permits, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !MEMBER_API.matcher(request.getRequestURI()).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "회원 조회 요청이 많습니다. 잠시 후 다시 시도해 주세요.");
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion());
+            } else {
+                permits.release();
+            }
+        }
+    }
+
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    // 타임아웃/에러 뒤에 onComplete 가 한번 더 오므로 한번만 반납한다.
+    private class ReleaseOnCompletion implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 같은 요청에서 startAsync 를 다시 부르면 리스너가 지워지므로 다시 등록한다.
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package jpa.querydsl.controller;
 
+import jpa.querydsl.Dto.MemberCursorPage;
 import jpa.querydsl.Dto.MemberSearchCondition;
 import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.readmodel.MemberReadModel;
 import jpa.querydsl.repository.MemberJpaRepository;
 import jpa.querydsl.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -18,10 +24,22 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final ObjectProvider<MemberReadModel> memberReadModel;
+
+    // Pageable 과 같은 상한을 커서 페이징의 size 에도 적용한다.
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
 
     @GetMapping("v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition){
-        return memberJpaRepository.searchByBuilder(condition);
+        // 읽기 모델이 켜져 있으면 DB 를 거치지 않고 메모리 인덱스로 답한다.
+        MemberReadModel readModel = memberReadModel.getIfAvailable();
+        if (readModel != null && readModel.isReady()) {
+            return readModel.search(condition);
+        }
+        // 조회가 가장 많은 API 라서 매번 쿼리를 만들지 않고 캐시된 쿼리 템플릿을 사용한다.
+        return memberRepository.searchByTemplate(condition);
+        //return memberJpaRepository.searchByBuilder(condition);
     }
 
     @GetMapping("v2/members")
@@ -34,4 +52,24 @@ public class MemberController {
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    // v3 와 같은 결과. 컨텐츠와 카운트 쿼리를 동시에 실행한다.
+    @GetMapping("v3/members/concurrent")
+    public Page<MemberTeamDto> searchMemberV3Concurrent(MemberSearchCondition condition, Pageable pageable){
+        return memberRepository.searchPageConcurrent(condition, pageable);
+    }
+
+    // 전체 개수가 필요없는 무한스크롤용 - 카운트 쿼리를 날리지 않는다.
+    @GetMapping("v4/members")
+    public Slice<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable){
+        return memberRepository.searchSlice(condition, pageable);
+    }
+
+    // 커서 기반(키셋) 페이징 - 응답의 nextCursor 를 다음 요청의 cursor 로 넘긴다.
+    @GetMapping("v3/members/cursor")
+    public MemberCursorPage searchMemberCursor(MemberSearchCondition condition,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "10") int size){
+        return memberRepository.searchAfter(condition, cursor, Math.min(size, maxPageSize));
+    }
+
 }
@@ -0,0 +1,136 @@
+package jpa.querydsl.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 성능 테스트용 대량 데이터 생성기.
+ * java -jar queryDSL.jar --spring.profiles.active=datagen --datagen.members=10000000
+ *
+ * 팀 크기는 지프(Zipf) 분포로 치우치게, 나이는 정규분포, 이름은 인기 이름이 더 자주 나오게 만든다.
+ * batch-size 마다 flush/clear 하고 커밋해서 JDBC 배치 insert 로 들어가고 메모리는 일정하게 유지된다.
+ */
+@Slf4j
+@Profile("datagen")
+@Component
+public class MemberDataGenerator implements ApplicationRunner {
+
+    private static final String[] GIVEN_NAMES = {
+            "minjun", "seoyeon", "jiho", "haeun", "doyun", "jiwoo", "seojun", "sua", "yejun", "jian",
+            "hajun", "seoa", "eunwoo", "hayoon", "siwoo", "jiyu", "juwon", "chaewon", "yuchan", "yuna"
+    };
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate tx;
+
+    @Value("${datagen.members:10000000}")
+    private long memberCount;
+
+    @Value("${datagen.teams:1000}")
+    private int teamCount;
+
+    @Value("${datagen.team-skew:1.1}")
+    private double teamSkew; // 클수록 큰 팀에 회원이 몰린다.
+
+    @Value("${datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${datagen.seed:42}")
+    private long seed;
+
+    public MemberDataGenerator(PlatformTransactionManager transactionManager) {
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+
+        Long[] teamIds = tx.execute(status -> createTeams());
+        double[] teamWeights = zipfCumulative(teamCount, teamSkew);
+        double[] nameWeights = zipfCumulative(GIVEN_NAMES.length, 1.0);
+
+        long created = 0;
+        while (created < memberCount) {
+            long chunkStart = created;
+            long chunkEnd = Math.min(memberCount, created + batchSize);
+
+            // 청크마다 커밋해서 트랜잭션(언두 로그)이 끝없이 커지지 않게 한다.
+            tx.executeWithoutResult(status -> {
+                for (long i = chunkStart; i < chunkEnd; i++) {
+                    String username = GIVEN_NAMES[pick(nameWeights, random)] + "_" + i;
+                    Member member = new Member(username, age(random));
+                    // getReference 는 쿼리를 날리지 않는다. changeMember 로 팀의 memberList 를 건드리면 초기화 쿼리가 나가므로 setTeam 만 한다.
+                    member.setTeam(em.getReference(Team.class, teamIds[pick(teamWeights, random)]));
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+            created = chunkEnd;
+
+            if (created % (batchSize * 100L) == 0 || created == memberCount) {
+                long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                log.info("members {}/{} ({} rows/s)", created, memberCount, created * 1000 / elapsed);
+            }
+        }
+        log.info("datagen done. teams={}, members={}, {} ms", teamCount, memberCount, System.currentTimeMillis() - start);
+    }
+
+    private Long[] createTeams() {
+        Long[] teamIds = new Long[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teamIds[i] = team.getId();
+        }
+        em.flush();
+        em.clear();
+        return teamIds;
+    }
+
+    /**
+     * 15~80세 사이, 평균 35세 정규분포
+     */
+    private static int age(Random random) {
+        int age = (int) Math.round(35 + random.nextGaussian() * 12);
+        return Math.max(15, Math.min(80, age));
+    }
+
+    /**
+     * k 번째 항목의 가중치가 1/k^s 인 누적 분포 (0~1)
+     */
+    private static double[] zipfCumulative(int size, double s) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+}
@@ -0,0 +1,74 @@
+package jpa.querydsl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.repository.MemberRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 검색 결과 전체를 NDJSON(한 줄에 json 하나)으로 내려준다.
+ * 결과를 리스트로 모으지 않고 DB 에서 읽는 대로 응답에 써서 회원이 몇 명이든 힙 사용량이 일정하다.
+ */
+@RestController
+public class MemberExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectWriter writer;
+    private final int fetchSize;
+
+    public MemberExportController(MemberRepository memberRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${member.export.fetch-size:1000}") int fetchSize) {
+        this.memberRepository = memberRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.writer = objectMapper.writerFor(MemberTeamDto.class);
+        this.fetchSize = fetchSize;
+    }
+
+    @GetMapping("v1/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMembers(MemberSearchCondition condition){
+        // 응답 쓰기는 별도 스레드에서 일어나므로 스트림을 읽는 동안 열려있을 트랜잭션을 거기서 시작한다.
+        StreamingResponseBody body = out -> readOnlyTx.executeWithoutResult(status -> write(condition, out));
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    private void write(MemberSearchCondition condition, OutputStream out) {
+        try (Stream<MemberTeamDto> members = memberRepository.streamSearch(condition, fetchSize)) {
+            Iterator<MemberTeamDto> iterator = members.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                // fetchSize 만큼 쓸 때마다 클라이언트로 밀어낸다.
+                if (++written % fetchSize == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
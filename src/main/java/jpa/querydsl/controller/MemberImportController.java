@@ -0,0 +1,44 @@
+package jpa.querydsl.controller;
+
+import jpa.querydsl.Dto.MemberImportResult;
+import jpa.querydsl.service.MemberImportService;
+import jpa.querydsl.service.MemberImportService.Format;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 회원 대량 등록. 요청 본문을 메모리에 다 올리지 않고 스트림으로 읽으면서 청크 단위로 저장한다.
+ * curl -X POST -H 'Content-Type: text/csv' --data-binary @members.csv localhost:8080/v1/members/import?chunkSize=500
+ * chunkSize 가 없으면 member.import.chunk-size, 1 보다 작으면 본문을 읽기 전에 400.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberImportController {
+
+    private final MemberImportService memberImportService;
+
+    @PostMapping(value = "v1/members/import", consumes = "text/csv")
+    public MemberImportResult importCsv(InputStream body, @RequestParam(required = false) Integer chunkSize){
+        return importMembers(body, Format.CSV, chunkSize);
+    }
+
+    @PostMapping(value = "v1/members/import", consumes = "application/x-ndjson")
+    public MemberImportResult importNdjson(InputStream body, @RequestParam(required = false) Integer chunkSize){
+        return importMembers(body, Format.NDJSON, chunkSize);
+    }
+
+    private MemberImportResult importMembers(InputStream body, Format format, Integer chunkSize) {
+        InputStreamReader input = new InputStreamReader(body, StandardCharsets.UTF_8);
+        if (chunkSize == null) {
+            return memberImportService.importMembers(input, format);
+        }
+        // 1 보다 작으면 서비스가 본문을 읽기 전에 InvalidChunkSizeException (400)
+        return memberImportService.importMembers(input, format, chunkSize);
+    }
+}
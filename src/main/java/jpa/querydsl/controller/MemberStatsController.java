@@ -0,0 +1,31 @@
+package jpa.querydsl.controller;
+
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberStats;
+import jpa.querydsl.readmodel.MemberSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 회원 집계. DB 가 아니라 컬럼 스냅샷(MemberColumnarSnapshot)으로 계산한다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberStatsController {
+
+    private final MemberSnapshotService memberSnapshotService;
+
+    @GetMapping("v1/members/stats")
+    public MemberStats memberStats(MemberSearchCondition condition){
+        return memberSnapshotService.stats(condition);
+    }
+
+    // 스냅샷을 바로 다시 만든다. (기본은 member.snapshot.max-age 가 지나면 다음 요청에서 다시 만든다)
+    @PostMapping("v1/members/stats/refresh")
+    public MemberStats refreshSnapshot(){
+        memberSnapshotService.refresh();
+        return memberSnapshotService.stats(new MemberSearchCondition());
+    }
+}
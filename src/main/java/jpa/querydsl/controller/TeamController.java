@@ -0,0 +1,22 @@
+package jpa.querydsl.controller;
+
+import jpa.querydsl.Dto.TeamMembersDto;
+import jpa.querydsl.repository.TeamRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamRepository teamRepository;
+
+    // 팀과 팀의 회원 목록. 팀마다 회원 쿼리가 나가지 않고 @BatchSize 단위로 묶어서 읽는다.
+    @GetMapping("v1/teams/members")
+    public Page<TeamMembersDto> teamsWithMembers(Pageable pageable){
+        return teamRepository.findTeamsWithMembers(pageable);
+    }
+}
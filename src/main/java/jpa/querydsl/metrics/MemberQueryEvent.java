@@ -0,0 +1,62 @@
+package jpa.querydsl.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 회원 Querydsl 쿼리 실행 한 건 (Java Flight Recorder 이벤트).
+ * JDBC 프레임만으로는 어떤 검색인지 알 수 없어서, 쿼리 모양과 단계별(직렬화/실행/프로젝션) 시간을 남긴다.
+ * 기록 중이 아니면 isEnabled() 가 false 라서 평소 실행 경로를 그대로 탄다.
+ */
+@Name("jpa.querydsl.MemberQuery")
+@Label("Member Query")
+@Category({"Application", "Querydsl"})
+@Description("MemberRepositoryImpl / MemberJpaRepository 의 Querydsl 쿼리 실행")
+@StackTrace(false)
+public class MemberQueryEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Query Shape")
+    @Description("MemberSearchCondition 에 채워진 필드 (ex. username+ageGoe)")
+    public String shape;
+
+    @Label("Username Condition")
+    public boolean username;
+
+    @Label("Team Name Condition")
+    public boolean teamName;
+
+    @Label("Age Goe Condition")
+    public boolean ageGoe;
+
+    @Label("Age Loe Condition")
+    public boolean ageLoe;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Serialization Time")
+    @Description("Querydsl createQuery (JPQL 직렬화 + createQuery + 파라미터, 힌트 설정)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long serializationTime;
+
+    @Label("Execution Time")
+    @Description("getResultList (SQL 실행과 결과 읽기. 하이버네이트는 DTO 변환도 여기에 들어간다)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long executionTime;
+
+    @Label("Projection Time")
+    @Description("실행 뒤에 결과 행을 DTO 로 바꾸는 시간 (하이버네이트 Querydsl 쿼리는 실행 안에서 바꾸므로 0 에 가깝다)")
+    @Timespan(Timespan.NANOSECONDS)
+    public long projectionTime;
+}
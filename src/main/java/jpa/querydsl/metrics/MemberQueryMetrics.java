@@ -0,0 +1,81 @@
+package jpa.querydsl.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 회원 리포지토리 쿼리 메트릭. (/actuator/metrics/member.repository.*)
+ * <ul>
+ *     <li>member.repository.query : 메서드, 쿼리 모양(MemberSearchShape), 결과별 실행 시간</li>
+ *     <li>member.repository.rows : 메서드별 반환 행 수</li>
+ *     <li>member.repository.count.query : 페이징에서 카운트 쿼리를 실행했는지(executed) 건너뛰었는지(skipped)</li>
+ *     <li>member.repository.persistence.context : 메서드가 끝났을 때 영속성 컨텍스트의 엔티티 수</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberQueryMetrics {
+
+    private final MeterRegistry registry;
+
+    public Timer timer(String repository, String method, String shape, String outcome) {
+        return Timer.builder("member.repository.query")
+                .description("회원 리포지토리 메서드 실행 시간")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("shape", shape)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    public void recordRows(String repository, String method, int rows) {
+        DistributionSummary.builder("member.repository.rows")
+                .description("회원 리포지토리 메서드가 반환한 행 수")
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(registry)
+                .record(rows);
+    }
+
+    public void recordPersistenceContext(String repository, String method, int entities) {
+        DistributionSummary.builder("member.repository.persistence.context")
+                .description("메서드가 끝났을 때 영속성 컨텍스트가 관리하는 엔티티 수")
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(registry)
+                .record(entities);
+    }
+
+    public void countQuery(String method, boolean executed) {
+        Counter.builder("member.repository.count.query")
+                .description("페이징 카운트 쿼리 실행/생략 횟수")
+                .tag("method", method)
+                .tag("result", executed ? "executed" : "skipped")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * PageableExecutionUtils.getPage 와 같고, 카운트 쿼리를 실행했는지 건너뛰었는지를 센다.
+     */
+    public <T> Page<T> getPage(String method, List<T> content, Pageable pageable, LongSupplier countQuery) {
+        boolean[] executed = {false};
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            executed[0] = true;
+            return countQuery.getAsLong();
+        });
+        countQuery(method, executed[0]);
+        return page;
+    }
+}
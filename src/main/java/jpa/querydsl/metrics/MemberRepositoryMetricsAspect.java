@@ -0,0 +1,105 @@
+package jpa.querydsl.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Dto.MemberCursorPage;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.repository.MemberSearchShape;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberRepositoryImpl, MemberJpaRepository 의 public 메서드와 MemberRepository.find*ByUsername 을 측정한다.
+ * CompletableFuture 를 돌려주는 비동기 메서드는 future 가 끝난 시점까지를 잰다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberRepositoryMetricsAspect {
+
+    private final MemberQueryMetrics metrics;
+    private final EntityManagerFactory emf;
+
+    @Around("execution(public * jpa.querydsl.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * jpa.querydsl.repository.MemberJpaRepository.*(..))"
+            + " || execution(* jpa.querydsl.repository.MemberRepository.find*ByUsername(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        String shape = shapeOf(joinPoint.getArgs());
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            record(repository, method, shape, start, "error", null);
+            throw e;
+        }
+
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, error) ->
+                    record(repository, method, shape, start, error == null ? "success" : "error", value));
+        } else {
+            record(repository, method, shape, start, "success", result);
+            recordPersistenceContext(repository, method);
+        }
+        return result;
+    }
+
+    private void record(String repository, String method, String shape, long start, String outcome, Object result) {
+        metrics.timer(repository, method, shape, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        int rows = rowsOf(result);
+        if (rows >= 0) {
+            metrics.recordRows(repository, method, rows);
+        }
+    }
+
+    // 지금 스레드에 묶인 영속성 컨텍스트가 있을 때만 잰다. (없는데 새로 만들지는 않는다)
+    private void recordPersistenceContext(String repository, String method) {
+        if (TransactionSynchronizationManager.getResource(emf) instanceof EntityManagerHolder holder) {
+            int entities = holder.getEntityManager()
+                    .unwrap(SessionImplementor.class)
+                    .getPersistenceContextInternal()
+                    .getNumberOfManagedEntities();
+            metrics.recordPersistenceContext(repository, method, entities);
+        }
+    }
+
+    private static String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return MemberSearchShape.tag(MemberSearchShape.of(condition));
+            }
+        }
+        return "none";
+    }
+
+    // 행 수를 알 수 없는 결과(Stream, void 등)는 -1
+    private static int rowsOf(Object result) {
+        if (result instanceof Collection<?> rows) {
+            return rows.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof MemberCursorPage page) {
+            return page.getContent().size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,194 @@
+package jpa.querydsl.readmodel;
+
+import jpa.querydsl.Dto.MemberSearchCondition;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 회원을 컬럼별 원시 배열로 들고 있는 읽기 전용 스냅샷. 행마다 객체를 만들지 않는다.
+ * 팀은 사전(dictionary) 코드로, username 은 스냅샷 안에서 같은 문자열 하나를 공유하도록 저장한다.
+ * 조건은 행 번호 BitSet 으로 평가해서 AND 한다.
+ */
+public final class MemberColumnarSnapshot {
+
+    private final int size;
+    private final long[] ids;
+    private final int[] ages;
+    private final int[] teamCodes;
+    private final String[] usernames;
+
+    // 팀 사전. teamCode 가 인덱스
+    private final long[] teamIds;
+    private final String[] teamNames;
+    // 팀 코드별 행 BitSet (팀 조건은 미리 만든 비트맵을 OR 하기만 하면 된다)
+    private final BitSet[] teamRows;
+    private final Map<String, String> usernameDictionary;
+    private final Instant createdAt;
+
+    private MemberColumnarSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.ages = Arrays.copyOf(builder.ages, size);
+        this.teamCodes = Arrays.copyOf(builder.teamCodes, size);
+        this.usernames = Arrays.copyOf(builder.usernames, size);
+        this.teamIds = builder.teamIds.stream().mapToLong(Long::longValue).toArray();
+        this.teamNames = builder.teamNames.toArray(String[]::new);
+        this.usernameDictionary = builder.usernameDictionary;
+        this.createdAt = Instant.now();
+
+        this.teamRows = new BitSet[teamIds.length];
+        for (int code = 0; code < teamRows.length; code++) {
+            teamRows[code] = new BitSet(size);
+        }
+        for (int row = 0; row < size; row++) {
+            teamRows[teamCodes[row]].set(row);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 조건에 맞는 행 번호 BitSet. 조건이 없으면 전체 행.
+     */
+    public BitSet filter(MemberSearchCondition condition) {
+        BitSet rows = new BitSet(size);
+        rows.set(0, size);
+
+        if (hasText(condition.getTeamName())) {
+            rows.and(teamNameRows(condition.getTeamName()));
+        }
+        if (hasText(condition.getUsername())) {
+            rows.and(usernameRows(condition.getUsername()));
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            int goe = condition.getAgeGoe() != null ? condition.getAgeGoe() : Integer.MIN_VALUE;
+            int loe = condition.getAgeLoe() != null ? condition.getAgeLoe() : Integer.MAX_VALUE;
+            rows.and(ageRows(goe, loe));
+        }
+        return rows;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    public String getUsername(int row) {
+        return usernames[row];
+    }
+
+    public long getTeamId(int row) {
+        return teamIds[teamCodes[row]];
+    }
+
+    public int teamCount() {
+        return teamIds.length;
+    }
+
+    public int getTeamCode(int row) {
+        return teamCodes[row];
+    }
+
+    public String teamNameOf(int teamCode) {
+        return teamNames[teamCode];
+    }
+
+    private BitSet teamNameRows(String teamName) {
+        // 이름이 같은 팀이 여러개일 수 있다.
+        BitSet rows = new BitSet(size);
+        for (int code = 0; code < teamNames.length; code++) {
+            if (teamName.equals(teamNames[code])) {
+                rows.or(teamRows[code]);
+            }
+        }
+        return rows;
+    }
+
+    private BitSet usernameRows(String username) {
+        BitSet rows = new BitSet(size);
+        // 사전에 없는 이름이면 맞는 행이 없다. 있으면 참조 비교만 하면 된다.
+        String shared = usernameDictionary.get(username);
+        if (shared == null) {
+            return rows;
+        }
+        for (int row = 0; row < size; row++) {
+            if (usernames[row] == shared) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    private BitSet ageRows(int goe, int loe) {
+        BitSet rows = new BitSet(size);
+        for (int row = 0; row < size; row++) {
+            int age = ages[row];
+            if (age >= goe && age <= loe) {
+                rows.set(row);
+            }
+        }
+        return rows;
+    }
+
+    public static class Builder {
+
+        private int size;
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private int[] teamCodes = new int[1024];
+        private String[] usernames = new String[1024];
+
+        private final Map<Long, Integer> teamCodeById = new HashMap<>();
+        private final List<Long> teamIds = new ArrayList<>();
+        private final List<String> teamNames = new ArrayList<>();
+        private final Map<String, String> usernameDictionary = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long id, String username, int age, long teamId, String teamName) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamCodes = Arrays.copyOf(teamCodes, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+            }
+            ids[size] = id;
+            ages[size] = age;
+            teamCodes[size] = teamCodeById.computeIfAbsent(teamId, key -> {
+                teamIds.add(teamId);
+                teamNames.add(teamName);
+                return teamIds.size() - 1;
+            });
+            usernames[size] = username != null ? usernameDictionary.computeIfAbsent(username, key -> key) : null;
+            size++;
+            return this;
+        }
+
+        public MemberColumnarSnapshot build() {
+            return new MemberColumnarSnapshot(this);
+        }
+    }
+}
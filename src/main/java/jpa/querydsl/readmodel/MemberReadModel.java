@@ -0,0 +1,239 @@
+package jpa.querydsl.readmodel;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Dto.QMemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.repository.MemberBulkChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static jpa.querydsl.Entity.QTeam.team;
+
+/**
+ * 회원 검색용 인메모리 읽기 모델 (member.read-model.enabled=true 일 때만 등록).
+ * 기동이 끝나면 전체를 한번 읽어오고, 이후에는 Member/Team 의 커밋 후 이벤트로 바뀐 행만 반영한다.
+ * JPQL 벌크 연산(executeUpdate)은 이벤트가 없으므로 그 뒤에는 reload() 를 불러야 한다.
+ * MemberRepository 의 bulk* 메서드는 끝나면 MemberBulkChangedEvent 로 알려주므로 자동으로 다시 읽는다.
+ * 다시 읽을 때는 락 밖에서 새 인덱스를 만들고 끝나면 바꿔 끼우므로, 그동안 검색은 예전 인덱스로 계속된다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.read-model.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MemberReadModel implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile MemberSearchIndex index = new MemberSearchIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    // 다시 읽는 동안 들어온 변경. 새 인덱스에도 반영해야 하므로 모아뒀다가 바꿔 끼울 때 다시 적용한다. (lock 으로 보호)
+    private List<Consumer<MemberSearchIndex>> pending;
+
+    @PostConstruct
+    void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        reloadLock.lock();
+        try {
+            // 읽기 전에 변경을 모으기 시작한다. 조회 결과에 이미 들어간 변경을 한번 더 적용해도 결과는 같다.
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            long start = System.currentTimeMillis();
+            MemberSearchIndex loaded = new MemberSearchIndex();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, String> teams = new HashMap<>();
+                    for (Tuple row : queryFactory.select(team.id, team.name).from(team).fetch()) {
+                        teams.put(row.get(team.id), row.get(team.name));
+                    }
+                    List<MemberTeamDto> rows = queryFactory
+                            .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                            .from(member)
+                            .join(member.team, team)
+                            .fetch();
+                    loaded.load(teams, rows);
+                });
+            } catch (RuntimeException e) {
+                swap(null);
+                throw e;
+            }
+            swap(loaded);
+            log.info("member read model loaded: {} members in {}ms", loaded.size(), System.currentTimeMillis() - start);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // 모아둔 변경을 새 인덱스에 적용하고 바꿔 끼운다. 읽기에 실패했으면(null) 모으기만 그만둔다.
+    private void swap(MemberSearchIndex loaded) {
+        lock.writeLock().lock();
+        try {
+            if (loaded != null) {
+                pending.forEach(change -> change.accept(loaded));
+                index = loaded;
+                ready = true;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 호출한 쪽 트랜잭션 안에서 실행된 벌크 연산이면 커밋된 뒤에 다시 읽는다.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(MemberBulkChangedEvent event) {
+        log.info("member bulk {} changed {} rows, reloading read model", event.operation(), event.rows());
+        reload();
+    }
+
+    /**
+     * 적재가 끝나기 전에는 false. 이때는 DB 로 조회해야 한다.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            return index.search(condition);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- 하이버네이트 커밋 후 이벤트 ----
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        apply(event.getEntity(), false);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        apply(event.getEntity(), false);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        apply(event.getEntity(), true);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return entityClass == Member.class || entityClass == Team.class;
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private void apply(Object entity, boolean deleted) {
+        Consumer<MemberSearchIndex> change = changeOf(entity, deleted);
+        if (change == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 나중에 다시 적용할 수 있도록 이벤트 시점의 값을 잡아둔다.
+    private static Consumer<MemberSearchIndex> changeOf(Object entity, boolean deleted) {
+        if (entity instanceof Member m) {
+            Long memberId = m.getId();
+            if (deleted) {
+                return target -> target.removeMember(memberId);
+            }
+            // 프록시여도 id 조회는 초기화하지 않는다. 팀 이름은 인덱스가 가진 값을 쓴다.
+            Long teamId = m.getTeam() != null ? m.getTeam().getId() : null;
+            String username = m.getUsername();
+            int age = m.getAge();
+            return target -> target.upsertMember(memberId, username, age, teamId);
+        }
+        if (entity instanceof Team t) {
+            Long teamId = t.getId();
+            if (deleted) {
+                return target -> target.removeTeam(teamId);
+            }
+            String name = t.getName();
+            return target -> target.upsertTeam(teamId, name);
+        }
+        return null;
+    }
+}
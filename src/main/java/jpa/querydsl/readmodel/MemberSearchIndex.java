@@ -0,0 +1,246 @@
+package jpa.querydsl.readmodel;
+
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 메모리에 올린 MemberTeamDto 와 보조 인덱스.
+ * username, teamName 은 해시 인덱스, age 는 (age, memberId) 순으로 정렬한 원시 배열로 범위를 찾는다.
+ * 동기화는 하지 않으므로 MemberReadModel 이 락을 잡고 호출한다.
+ */
+class MemberSearchIndex {
+
+    private final Map<Long, MemberTeamDto> members = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+
+    private final Map<String, Set<Long>> byUsername = new HashMap<>();
+    private final Map<String, Set<Long>> byTeamName = new HashMap<>();
+
+    // ages[i], ageMemberIds[i] 가 한 쌍. 0 ~ ageSize 까지만 유효하다.
+    private int[] ages = new int[16];
+    private long[] ageMemberIds = new long[16];
+    private int ageSize;
+
+    /**
+     * 전체 데이터를 한번에 채운다. 행을 (age, memberId) 순으로 한번만 정렬해서 나이 배열을 만든다.
+     */
+    void load(Map<Long, String> teams, Collection<MemberTeamDto> rows) {
+        clear();
+        teamNames.putAll(teams);
+
+        List<MemberTeamDto> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparingInt(MemberTeamDto::getAge).thenComparing(MemberTeamDto::getMemberId));
+
+        ages = new int[Math.max(16, sorted.size())];
+        ageMemberIds = new long[ages.length];
+        for (MemberTeamDto row : sorted) {
+            members.put(row.getMemberId(), row);
+            addToHashIndexes(row);
+            ages[ageSize] = row.getAge();
+            ageMemberIds[ageSize] = row.getMemberId();
+            ageSize++;
+        }
+    }
+
+    void clear() {
+        members.clear();
+        teamNames.clear();
+        byUsername.clear();
+        byTeamName.clear();
+        ageSize = 0;
+    }
+
+    int size() {
+        return members.size();
+    }
+
+    /**
+     * 회원 추가/수정. 팀이 없으면 검색 쿼리(inner join)에 나오지 않으므로 인덱스에서도 뺀다.
+     */
+    void upsertMember(Long memberId, String username, int age, Long teamId) {
+        removeMember(memberId);
+        if (teamId == null) {
+            return;
+        }
+        MemberTeamDto row = new MemberTeamDto(memberId, username, age, teamId, teamNames.get(teamId));
+        members.put(memberId, row);
+        addToHashIndexes(row);
+        insertAge(row.getAge(), memberId);
+    }
+
+    void removeMember(Long memberId) {
+        MemberTeamDto old = members.remove(memberId);
+        if (old == null) {
+            return;
+        }
+        removeFromHashIndex(byUsername, old.getUsername(), memberId);
+        removeFromHashIndex(byTeamName, old.getTeamName(), memberId);
+        removeAge(old.getAge(), memberId);
+    }
+
+    /**
+     * 팀 추가/이름 변경. 이름이 바뀌면 그 팀 회원의 teamName 인덱스를 옮긴다.
+     */
+    void upsertTeam(Long teamId, String name) {
+        String oldName = teamNames.put(teamId, name);
+        if (oldName == null || oldName.equals(name)) {
+            return;
+        }
+        Set<Long> oldMembers = byTeamName.getOrDefault(oldName, Set.of());
+        for (Long memberId : new ArrayList<>(oldMembers)) {
+            MemberTeamDto row = members.get(memberId);
+            if (!teamId.equals(row.getTeamId())) {
+                continue; // 같은 이름의 다른 팀
+            }
+            removeFromHashIndex(byTeamName, oldName, memberId);
+            row.setTeamName(name);
+            byTeamName.computeIfAbsent(name, key -> new HashSet<>()).add(memberId);
+        }
+    }
+
+    void removeTeam(Long teamId) {
+        teamNames.remove(teamId);
+    }
+
+    /**
+     * 조건이 있는 인덱스 중 후보가 가장 적은 것을 골라서 돌고, 나머지 조건은 행을 보고 거른다.
+     * 결과는 memberId 순.
+     */
+    List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int ageFrom = condition.getAgeGoe() != null ? lowerBound(condition.getAgeGoe()) : 0;
+        int ageTo = condition.getAgeLoe() != null ? upperBound(condition.getAgeLoe()) : ageSize;
+        boolean hasAgeRange = condition.getAgeGoe() != null || condition.getAgeLoe() != null;
+
+        Set<Long> candidates = null;
+        if (hasText(condition.getUsername())) {
+            candidates = byUsername.getOrDefault(condition.getUsername(), Set.of());
+        }
+        if (hasText(condition.getTeamName())) {
+            Set<Long> teamMembers = byTeamName.getOrDefault(condition.getTeamName(), Set.of());
+            if (candidates == null || teamMembers.size() < candidates.size()) {
+                candidates = teamMembers;
+            }
+        }
+
+        List<MemberTeamDto> result = new ArrayList<>();
+        if (candidates != null && (!hasAgeRange || candidates.size() <= ageTo - ageFrom)) {
+            for (Long memberId : candidates) {
+                MemberTeamDto row = members.get(memberId);
+                if (matches(row, condition)) {
+                    result.add(row);
+                }
+            }
+        } else if (hasAgeRange) {
+            for (int i = ageFrom; i < ageTo; i++) {
+                MemberTeamDto row = members.get(ageMemberIds[i]);
+                if (matches(row, condition)) {
+                    result.add(row);
+                }
+            }
+        } else {
+            result.addAll(members.values());
+        }
+
+        result.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        return copyOf(result);
+    }
+
+    private static boolean matches(MemberTeamDto row, MemberSearchCondition condition) {
+        return (!hasText(condition.getUsername()) || condition.getUsername().equals(row.getUsername()))
+                && (!hasText(condition.getTeamName()) || condition.getTeamName().equals(row.getTeamName()))
+                && (condition.getAgeGoe() == null || row.getAge() >= condition.getAgeGoe())
+                && (condition.getAgeLoe() == null || row.getAge() <= condition.getAgeLoe());
+    }
+
+    // 인덱스에 있는 객체는 수정될 수 있어서 밖으로는 복사본을 준다.
+    private static List<MemberTeamDto> copyOf(List<MemberTeamDto> rows) {
+        List<MemberTeamDto> copy = new ArrayList<>(rows.size());
+        for (MemberTeamDto row : rows) {
+            copy.add(new MemberTeamDto(row.getMemberId(), row.getUsername(), row.getAge(), row.getTeamId(), row.getTeamName()));
+        }
+        return copy;
+    }
+
+    private void addToHashIndexes(MemberTeamDto row) {
+        if (row.getUsername() != null) {
+            byUsername.computeIfAbsent(row.getUsername(), key -> new HashSet<>()).add(row.getMemberId());
+        }
+        if (row.getTeamName() != null) {
+            byTeamName.computeIfAbsent(row.getTeamName(), key -> new HashSet<>()).add(row.getMemberId());
+        }
+    }
+
+    private static void removeFromHashIndex(Map<String, Set<Long>> index, String key, Long memberId) {
+        if (key == null) {
+            return;
+        }
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(memberId) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    // ---- age 정렬 배열 ----
+    // 커밋 후 이벤트는 한 건씩 오므로 추가/삭제마다 뒤쪽을 밀고 당기는 O(n) 복사가 든다.
+    // 회원 수십만 명 정도까지는 배열 복사가 충분히 빠르고, 한번에 많이 바꾸는 벌크 연산은 reload() 로 처음부터 다시 만든다.
+
+    private void insertAge(int age, long memberId) {
+        if (ageSize == ages.length) {
+            ages = Arrays.copyOf(ages, ageSize * 2);
+            ageMemberIds = Arrays.copyOf(ageMemberIds, ageSize * 2);
+        }
+        int pos = position(age, memberId);
+        System.arraycopy(ages, pos, ages, pos + 1, ageSize - pos);
+        System.arraycopy(ageMemberIds, pos, ageMemberIds, pos + 1, ageSize - pos);
+        ages[pos] = age;
+        ageMemberIds[pos] = memberId;
+        ageSize++;
+    }
+
+    private void removeAge(int age, long memberId) {
+        int pos = position(age, memberId);
+        if (pos == ageSize || ages[pos] != age || ageMemberIds[pos] != memberId) {
+            return;
+        }
+        System.arraycopy(ages, pos + 1, ages, pos, ageSize - pos - 1);
+        System.arraycopy(ageMemberIds, pos + 1, ageMemberIds, pos, ageSize - pos - 1);
+        ageSize--;
+    }
+
+    // (age, memberId) 보다 크거나 같은 첫 위치
+    private int position(int age, long memberId) {
+        int low = 0;
+        int high = ageSize;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ages[mid] < age || (ages[mid] == age && ageMemberIds[mid] < memberId)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // age 이상인 첫 위치
+    private int lowerBound(int age) {
+        return position(age, Long.MIN_VALUE);
+    }
+
+    // age 초과인 첫 위치
+    private int upperBound(int age) {
+        return age == Integer.MAX_VALUE ? ageSize : position(age + 1, Long.MIN_VALUE);
+    }
+}
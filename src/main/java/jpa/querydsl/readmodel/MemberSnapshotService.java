@@ -0,0 +1,149 @@
+package jpa.querydsl.readmodel;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberStats;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static jpa.querydsl.Entity.QTeam.team;
+
+/**
+ * 집계용 회원 컬럼 스냅샷을 관리한다.
+ * 처음 쓸 때 만들고, max-age 보다 오래되면 다음 요청이 백그라운드에서 한번만 다시 만들게 한다.
+ * 다시 만드는 동안에는 예전 스냅샷으로 응답한다.
+ */
+@Slf4j
+@Service
+public class MemberSnapshotService {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration maxAge;
+    private final int fetchSize;
+
+    private volatile MemberColumnarSnapshot snapshot;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Executor refreshExecutor = new SimpleAsyncTaskExecutor("member-snapshot-");
+
+    public MemberSnapshotService(JPAQueryFactory queryFactory,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${member.snapshot.max-age:1m}") Duration maxAge,
+                                 @Value("${member.snapshot.fetch-size:1000}") int fetchSize) {
+        this.queryFactory = queryFactory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.maxAge = maxAge;
+        this.fetchSize = fetchSize;
+    }
+
+    public MemberColumnarSnapshot current() {
+        MemberColumnarSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                // 기다리는 동안 다른 스레드가 만들었으면 그걸 쓴다.
+                if (snapshot == null) {
+                    snapshot = build();
+                }
+                return snapshot;
+            }
+        }
+        if (isExpired(current) && refreshing.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh();
+                } catch (RuntimeException e) {
+                    // 다음 요청이 다시 시도한다. 그때까지는 예전 스냅샷으로 응답한다.
+                    log.warn("member snapshot refresh failed", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return current;
+    }
+
+    public synchronized MemberColumnarSnapshot refresh() {
+        snapshot = build();
+        return snapshot;
+    }
+
+    /**
+     * 조건에 맞는 회원 수, 나이 최소/최대/평균, 팀별 인원. 행 객체 없이 배열만 훑는다.
+     */
+    public MemberStats stats(MemberSearchCondition condition) {
+        MemberColumnarSnapshot current = current();
+        BitSet rows = current.filter(condition);
+
+        long count = 0;
+        long sum = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long[] teamCounts = new long[current.teamCount()];
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+            int age = current.getAge(row);
+            count++;
+            sum += age;
+            min = Math.min(min, age);
+            max = Math.max(max, age);
+            teamCounts[current.getTeamCode(row)]++;
+        }
+
+        Map<String, Long> countByTeam = new LinkedHashMap<>();
+        for (int code = 0; code < teamCounts.length; code++) {
+            if (teamCounts[code] > 0) {
+                countByTeam.merge(current.teamNameOf(code), teamCounts[code], Long::sum);
+            }
+        }
+
+        if (count == 0) {
+            return new MemberStats(0, null, null, null, countByTeam, current.getCreatedAt());
+        }
+        return new MemberStats(count, min, max, (double) sum / count, countByTeam, current.getCreatedAt());
+    }
+
+    private boolean isExpired(MemberColumnarSnapshot current) {
+        return current.getCreatedAt().plus(maxAge).isBefore(Instant.now());
+    }
+
+    private MemberColumnarSnapshot build() {
+        long start = System.currentTimeMillis();
+        MemberColumnarSnapshot built = readOnlyTx.execute(status -> {
+            MemberColumnarSnapshot.Builder builder = MemberColumnarSnapshot.builder();
+            // 검색 쿼리와 같이 팀이 있는 회원만. 스트림으로 읽어서 결과 리스트를 만들지 않는다.
+            try (Stream<Tuple> rows = queryFactory
+                    .select(member.id, member.username, member.age, team.id, team.name)
+                    .from(member)
+                    .join(member.team, team)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .stream()) {
+                rows.forEach(row -> builder.add(
+                        row.get(member.id),
+                        row.get(member.username),
+                        row.get(member.age),
+                        row.get(team.id),
+                        row.get(team.name)));
+            }
+            return builder.build();
+        });
+        log.info("member snapshot built: {} members in {}ms", built.size(), System.currentTimeMillis() - start);
+        return built;
+    }
+}
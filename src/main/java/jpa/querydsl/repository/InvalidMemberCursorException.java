@@ -0,0 +1,20 @@
+package jpa.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 키셋 페이징의 커서나 size 가 잘못됐을 때. API 에서는 400 으로 응답한다.
+ * (IllegalArgumentException 이면 리포지토리 예외 변환에서 InvalidDataAccessApiUsageException 으로 바뀌어서 상태 코드를 잃는다)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidMemberCursorException extends RuntimeException {
+
+    public InvalidMemberCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidMemberCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,28 @@
+package jpa.querydsl.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 정렬할 수 없는 속성이나 인덱스가 없는 속성 조합으로 회원 검색을 정렬하려고 할 때. API 에서는 400 으로 응답한다.
+ * (IllegalArgumentException 이면 리포지토리 예외 변환에서 InvalidDataAccessApiUsageException 으로 바뀌어서 상태 코드를 잃는다)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidMemberSortException extends RuntimeException {
+
+    public InvalidMemberSortException(String property, Collection<String> sortable) {
+        super("정렬할 수 없는 속성입니다: " + property + " (가능: " + String.join(", ", new TreeSet<>(sortable)) + ")");
+    }
+
+    public InvalidMemberSortException(Sort sort, List<List<String>> indexed) {
+        super("인덱스로 정렬할 수 없는 조합입니다: " + sort + " (가능: "
+                + indexed.stream().map(columns -> String.join(",", columns)).collect(Collectors.joining(" / "))
+                + " 의 앞부분을 같은 방향으로)");
+    }
+}
@@ -0,0 +1,8 @@
+package jpa.querydsl.repository;
+
+/**
+ * 회원 벌크 연산이 끝나면 발행한다. 벌크 update/delete 는 하이버네이트 엔티티 이벤트가 없으므로
+ * 회원을 따로 들고 있는 쪽(MemberReadModel 등)은 이 이벤트를 받아서 다시 읽어야 한다.
+ */
+public record MemberBulkChangedEvent(String operation, long rows) {
+}
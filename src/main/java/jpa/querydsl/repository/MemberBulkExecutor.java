@@ -0,0 +1,122 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberBulkResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static jpa.querydsl.Entity.QMember.member;
+
+/**
+ * 회원 벌크 update/delete 를 대상 회원 id 순으로 chunkSize 명씩 나눠서 청크마다 트랜잭션 하나로 실행한다.
+ * 청크는 id 를 keyset 으로 읽어서(id > 직전 청크의 마지막 id) 정하므로 id 사이가 비어 있어도 빈 청크가 없다.
+ * 한 문장이 테이블 전체를 잠그지 않고, 청크가 끝날 때마다 커밋된다. (중간에 실패하면 커밋된 청크는 남는다)
+ * 호출한 쪽에 트랜잭션이 있으면 청크들이 그 트랜잭션에 참여하므로 중간 커밋은 없다.
+ * 청크마다 flush 하고 영속성 컨텍스트를 비워서 벌크 연산 전에 읽어둔 엔티티가 남지 않게 한다.
+ * 호출한 쪽 트랜잭션의 아직 flush 되지 않은 변경은 비우기 전에 DB 에 반영되고, 읽어둔 엔티티는 준영속이 된다.
+ */
+@Slf4j
+@Component
+class MemberBulkExecutor {
+
+    private final EntityManager em;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultChunkSize;
+
+    MemberBulkExecutor(EntityManager em,
+                       PlatformTransactionManager transactionManager,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${member.bulk.chunk-size:1000}") int defaultChunkSize) {
+        this.em = em;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    int defaultChunkSize() {
+        return defaultChunkSize;
+    }
+
+    /**
+     * ids 로 다음 청크의 회원 id 를 읽고, 그 첫 id ~ 마지막 id 구간 조건으로 statement 를 실행한다.
+     * statement 는 받은 id 구간 조건을 where 에 더해서 실행하고 바뀐 행 수를 돌려준다.
+     * totalRows 는 진행률(totalChunks)을 내는 데만 쓰는 예상 대상 수다. 끝난 결과의 totalChunks 는 실제 청크 수다.
+     */
+    MemberBulkResult run(String operation, long totalRows, int chunkSize,
+                         Consumer<MemberBulkResult> progress, ChunkIds ids, ChunkStatement statement) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize 는 1 이상이어야 합니다: " + chunkSize);
+        }
+        long start = System.currentTimeMillis();
+        long estimatedChunks = (totalRows + chunkSize - 1) / chunkSize;
+        long rows = 0;
+        long chunks = 0;
+        MemberBulkResult result = null;
+        Long lastId = null;
+        while (true) {
+            Long afterId = lastId;
+            Chunk chunk = tx.execute(status -> {
+                em.flush();
+                List<Long> chunkIds = ids.next(afterId, chunkSize);
+                if (chunkIds.isEmpty()) {
+                    return null;
+                }
+                Long first = chunkIds.get(0);
+                Long last = chunkIds.get(chunkIds.size() - 1);
+                long count = statement.execute(member.id.between(first, last));
+                em.flush();
+                em.clear();
+                return new Chunk(last, count, chunkIds.size() < chunkSize);
+            });
+            if (chunk == null) {
+                break;
+            }
+            lastId = chunk.lastId();
+            rows += chunk.rows();
+            chunks++;
+            long totalChunks = chunk.last() ? chunks : Math.max(estimatedChunks, chunks);
+            result = new MemberBulkResult(operation, rows, chunks, totalChunks, System.currentTimeMillis() - start);
+            progress.accept(result);
+            log.debug("member bulk {}: chunk {}/{}, {} rows", operation, chunks, totalChunks, rows);
+            if (chunk.last()) {
+                break;
+            }
+        }
+
+        // 대상이 없었거나, 예상보다 청크가 적게 끝났으면 실제 청크 수로 끝났다고 한번 더 알린다.
+        if (result == null || !result.isDone()) {
+            result = new MemberBulkResult(operation, rows, chunks, chunks, System.currentTimeMillis() - start);
+            progress.accept(result);
+        }
+        log.info("member bulk done. {}", result);
+        if (rows > 0) {
+            eventPublisher.publishEvent(new MemberBulkChangedEvent(operation, rows));
+        }
+        return result;
+    }
+
+    private record Chunk(Long lastId, long rows, boolean last) {
+    }
+
+    @FunctionalInterface
+    interface ChunkIds {
+        /**
+         * afterId 보다 큰 대상 회원 id 를 오름차순으로 최대 limit 개. afterId 가 null 이면 처음부터.
+         */
+        List<Long> next(Long afterId, int limit);
+    }
+
+    @FunctionalInterface
+    interface ChunkStatement {
+        long execute(BooleanExpression idRange);
+    }
+}
@@ -0,0 +1,44 @@
+package jpa.querydsl.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징용 커서.
+ * 클라이언트에게는 마지막으로 읽은 member.id 를 base64 로 감싼 불투명한 문자열로만 보여준다.
+ */
+final class MemberCursor {
+
+    private static final String PREFIX = "m:";
+
+    private MemberCursor() {
+    }
+
+    static String encode(Long lastMemberId) {
+        String raw = PREFIX + lastMemberId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 커서가 없으면 null (첫 페이지)
+     */
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMemberCursorException("잘못된 커서입니다: " + cursor, e);
+        }
+        if (!raw.startsWith(PREFIX)) {
+            throw new InvalidMemberCursorException("잘못된 커서입니다: " + cursor);
+        }
+        try {
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new InvalidMemberCursorException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+}
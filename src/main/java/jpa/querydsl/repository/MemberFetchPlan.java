@@ -0,0 +1,76 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+
+import java.util.List;
+import java.util.Objects;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static jpa.querydsl.Entity.QTeam.team;
+
+/**
+ * 회원 엔티티를 조회할 때 같이 가져올 연관관계.
+ * JPQL 쿼리에는 Member 의 @NamedEntityGraph 를 fetchgraph 힌트로, Querydsl 쿼리에는 같은 모양의 fetch join 을 건다.
+ * 팀이 없는 회원도 빠지지 않도록 left join 이다.
+ */
+public enum MemberFetchPlan {
+
+    // team 은 프록시로 둔다. (기존 동작)
+    NONE(null),
+    TEAM(Member.GRAPH_TEAM),
+    // team.memberList 는 Member -> Team -> Member 순환이라 하이버네이트가 같은 쿼리에서 fetch 하지 않는다.
+    // 회원 쿼리는 TEAM 과 같고, 조회된 팀들의 memberList 를 쿼리 한번으로 채운다. (팀 수와 상관없이 쿼리 2번)
+    TEAM_WITH_MEMBERS(Member.GRAPH_TEAM);
+
+    static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
+
+    private final String graphName;
+
+    MemberFetchPlan(String graphName) {
+        this.graphName = graphName;
+    }
+
+    public String getGraphName() {
+        return graphName;
+    }
+
+    <T> TypedQuery<T> applyTo(EntityManager em, TypedQuery<T> query) {
+        if (graphName != null) {
+            query.setHint(FETCH_GRAPH_HINT, em.getEntityGraph(graphName));
+        }
+        return query;
+    }
+
+    <T> JPAQuery<T> applyTo(JPAQuery<T> query) {
+        if (graphName != null) {
+            query.leftJoin(member.team, team).fetchJoin();
+        }
+        return query;
+    }
+
+    /**
+     * 쿼리 결과에 플랜의 나머지(팀의 memberList)를 채운다.
+     */
+    List<Member> complete(EntityManager em, List<Member> members) {
+        if (this != TEAM_WITH_MEMBERS) {
+            return members;
+        }
+        List<Long> teamIds = members.stream()
+                .map(Member::getTeam)
+                .filter(Objects::nonNull)
+                .map(Team::getId)
+                .distinct()
+                .toList();
+        if (!teamIds.isEmpty()) {
+            // 팀은 이미 영속성 컨텍스트에 있으므로 컬렉션만 초기화된다.
+            em.createQuery("select distinct t from Team t left join fetch t.memberList where t.id in :teamIds", Team.class)
+                    .setParameter("teamIds", teamIds)
+                    .getResultList();
+        }
+        return members;
+    }
+}
@@ -15,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +27,9 @@ import static org.springframework.util.StringUtils.hasText;
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
+    // JFR 이벤트(MemberQueryEvent)에 남기는 이름
+    private static final String REPOSITORY = "MemberJpaRepository";
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
 
@@ -34,27 +38,54 @@ public class MemberJpaRepository {
         em.persist(member);
     }
 
+    // hibernate.jdbc.batch_size 단위로 묶여서 insert 된다. (id 는 PooledSequenceIdGenerator 가 미리 받아둔 블록에서 할당)
+    public void saveAll(Collection<Member> members){
+        for (Member member : members) {
+            em.persist(member);
+        }
+    }
+
     public Optional<Member>findById(Long id){
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
     }
 
     public List<Member> findAll(){
-        return em.createQuery("select m from Member m", Member.class).getResultList();
+        return findAll(MemberFetchPlan.NONE);
+    }
+
+    public List<Member> findAll(MemberFetchPlan fetchPlan){
+        return fetchPlan.complete(em,
+                fetchPlan.applyTo(em, em.createQuery("select m from Member m", Member.class)).getResultList());
     }
 
     public List<Member> findAllQuerydsl(){
-        return queryFactory.selectFrom(member).fetch();
+        return findAllQuerydsl(MemberFetchPlan.NONE);
+    }
+
+    public List<Member> findAllQuerydsl(MemberFetchPlan fetchPlan){
+        return fetchPlan.complete(em, QueryFlightRecorder.fetch(REPOSITORY, "findAllQuerydsl", null,
+                fetchPlan.applyTo(queryFactory.selectFrom(member))));
     }
 
     public List<Member> findByUsername(String username){
-        return em.createQuery("select m from Member m where m.username = :username", Member.class)
-                .setParameter("username", username)
-                .getResultList();
+        return findByUsername(username, MemberFetchPlan.NONE);
+    }
+
+    public List<Member> findByUsername(String username, MemberFetchPlan fetchPlan){
+        return fetchPlan.complete(em,
+                fetchPlan.applyTo(em, em.createQuery("select m from Member m where m.username = :username", Member.class))
+                        .setParameter("username", username)
+                        .getResultList());
     }
 
     public List<Member> findByUsernameQuerydsl(String username){
-        return queryFactory.selectFrom(member).where(member.username.eq(username)).fetch();
+        return findByUsernameQuerydsl(username, MemberFetchPlan.NONE);
+    }
+
+    public List<Member> findByUsernameQuerydsl(String username, MemberFetchPlan fetchPlan){
+        return fetchPlan.complete(em, QueryFlightRecorder.fetch(REPOSITORY, "findByUsernameQuerydsl", null,
+                fetchPlan.applyTo(queryFactory.selectFrom(member)).where(member.username.eq(username))));
     }
 
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition){
@@ -74,7 +105,7 @@ public class MemberJpaRepository {
             builder.and(member.age.goe(condition.getAgeGoe()));
         }
 
-        return queryFactory
+        return QueryFlightRecorder.fetch(REPOSITORY, "searchByBuilder", condition, queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -84,12 +115,11 @@ public class MemberJpaRepository {
                 )
                 .from(member)
                 .join(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(builder));
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition){
-        return queryFactory
+        return QueryFlightRecorder.fetch(REPOSITORY, "search", condition, queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -104,8 +134,7 @@ public class MemberJpaRepository {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                ));
     }
 
     private BooleanExpression userNameEq(String username) {
@@ -0,0 +1,171 @@
+package jpa.querydsl.repository;
+
+import jpa.querydsl.metrics.MemberQueryMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * 검색 쿼리를 별도 스레드의 읽기 전용 트랜잭션(= 별도 커넥션)에서 실행한다.
+ * 동시에 실행하는 쿼리 수는 concurrency-limit 으로 제한한다.
+ * - JDK 21 이상: 쿼리마다 가상 스레드. 자리가 없으면 제출한 스레드가 자리가 날 때까지 기다린다.
+ * - JDK 17: concurrency-limit 개의 플랫폼 스레드 풀. 자리가 없으면 큐에서 기다리고 제출한 스레드는 바로 돌아간다.
+ *   큐(queue-capacity)도 차면 쌓아두지 않고 MemberQueryRejectedException (503) 으로 바로 실패한다.
+ * 호출한 쪽 트랜잭션과는 분리되므로 아직 커밋하지 않은 변경은 보이지 않는다.
+ *
+ * 커넥션을 잡은 스레드가 다른 커넥션을 기다리지 않도록, 결과를 기다리는 page 는 컨텐츠를 호출한 스레드에서 실행한다.
+ * 그래서 요청 하나가 동시에 쓰는 커넥션은 호출한 스레드의 것(OSIV) 1개 + 여기 스레드의 것이고,
+ * 여기 스레드는 concurrency-limit 개를 넘지 않으므로 (동시 요청 수 + concurrency-limit <= 풀 크기) 이면 풀이 바닥나서 서로 기다리는 일이 없다.
+ * (MemberConcurrencyLimitFilter 가 기본값을 이렇게 잡는다)
+ */
+@Component
+class MemberQueryExecutor implements DisposableBean {
+
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate readOnlyTx;
+    private final MemberQueryMetrics metrics;
+
+    MemberQueryExecutor(PlatformTransactionManager transactionManager,
+                        MemberQueryMetrics metrics,
+                        @Value("${member.query.concurrency-limit:8}") int concurrencyLimit,
+                        @Value("${member.query.queue-capacity:100}") int queueCapacity) {
+        this.metrics = metrics;
+        this.executor = Runtime.version().feature() >= 21
+                ? virtualThreadExecutor(concurrencyLimit)
+                : threadPoolExecutor(concurrencyLimit, queueCapacity);
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private static AsyncTaskExecutor virtualThreadExecutor(int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("member-query-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+
+    // 플랫폼 스레드를 쿼리마다 만들지 않도록 풀로 둔다. 큐가 차면 AbortPolicy 로 바로 거절한다.
+    private static AsyncTaskExecutor threadPoolExecutor(int concurrencyLimit, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("member-query-");
+        executor.setCorePoolSize(concurrencyLimit);
+        executor.setMaxPoolSize(concurrencyLimit);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    <T> Future<T> submit(Supplier<T> query) {
+        try {
+            return executor.submit(() -> readOnlyTx.execute(status -> query.get()));
+        } catch (TaskRejectedException e) {
+            throw new MemberQueryRejectedException(e);
+        }
+    }
+
+    /**
+     * 작업마다 새 읽기 전용 트랜잭션(과 그 트랜잭션의 EntityManager)에서 실행한다.
+     * 동시 실행 수가 꽉 차 있으면 가상 스레드에서는 호출한 스레드가 기다리고, 스레드 풀에서는 큐에 쌓인다.
+     */
+    <T> CompletableFuture<T> submitAsync(Supplier<T> query) {
+        try {
+            return executor.submitCompletable(() -> readOnlyTx.execute(status -> query.get()));
+        } catch (TaskRejectedException e) {
+            throw new MemberQueryRejectedException(e);
+        }
+    }
+
+    /**
+     * page 의 비동기 버전. 결과를 기다리는 동안 스레드를 잡고 있지 않는다. (제출할 때 기다리는 경우는 submitAsync 참고)
+     * 카운트가 필요없으면 카운트 future 를 취소한다. (아직 시작 전이면 실행되지 않고, 실행 중이면 결과만 버린다)
+     */
+    <T> CompletableFuture<Page<T>> pageAsync(String method, Supplier<List<T>> contentQuery, Supplier<Long> countQuery, Pageable pageable) {
+        CompletableFuture<List<T>> content = submitAsync(contentQuery);
+        CompletableFuture<Long> count = submitAsync(countQuery);
+
+        CompletableFuture<Page<T>> page = content.thenCompose(rows -> {
+            // 카운트가 필요한지는 PageableExecutionUtils 에게 물어본다.
+            boolean[] countNeeded = {false};
+            Page<T> withoutCount = PageableExecutionUtils.getPage(rows, pageable, () -> {
+                countNeeded[0] = true;
+                return 0L;
+            });
+            metrics.countQuery(method, countNeeded[0]);
+            if (!countNeeded[0]) {
+                count.cancel(false);
+                return CompletableFuture.completedFuture(withoutCount);
+            }
+            return count.thenApply(total -> new PageImpl<>(rows, pageable, total != null ? total : 0L));
+        });
+        // 컨텐츠가 실패해도 카운트는 필요없다.
+        content.exceptionally(e -> {
+            count.cancel(false);
+            return null;
+        });
+        return page;
+    }
+
+    /**
+     * 카운트 쿼리를 별도 스레드에서 시작하고 컨텐츠 쿼리는 호출한 스레드(의 트랜잭션/EntityManager)에서 실행한다.
+     * 컨텐츠 쿼리가 실패하거나 PageableExecutionUtils 가 카운트가 필요없다고 판단하면 카운트를 취소한다.
+     * (아직 시작 전이면 실행되지 않고, 실행 중이면 스레드를 interrupt 하고 결과는 버린다)
+     * 호출한 쪽 트랜잭션에서 아직 커밋하지 않은 변경은 컨텐츠에는 보이고 카운트에는 보이지 않는다.
+     */
+    <T> Page<T> page(String method, Supplier<List<T>> contentQuery, Supplier<Long> countQuery, Pageable pageable) {
+        Future<Long> count = submit(countQuery);
+        try {
+            return metrics.getPage(method, contentQuery.get(), pageable, () -> {
+                Long total = await(count);
+                return total != null ? total : 0L;
+            });
+        } finally {
+            count.cancel(true);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("검색 쿼리를 기다리는 중 interrupt 되었습니다.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (executor instanceof DisposableBean pool) {
+            pool.destroy();
+        } else if (executor instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package jpa.querydsl.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 검색 쿼리 스레드와 대기 큐가 모두 차서 쿼리를 받지 못할 때. API 에서는 503 으로 응답한다.
+ * (MemberConcurrencyLimitFilter 가 자리가 없을 때 돌려주는 것과 같은 상태 코드)
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class MemberQueryRejectedException extends RuntimeException {
+
+    public MemberQueryRejectedException(Throwable cause) {
+        super("회원 조회 요청이 많습니다. 잠시 후 다시 시도해 주세요.", cause);
+    }
+}
@@ -1,6 +1,7 @@
 package jpa.querydsl.repository;
 
 import jpa.querydsl.Entity.Member;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -8,4 +9,8 @@ import java.util.List;
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
     //select m from Mebmer m where m.username = :username;
     List<Member> findByUsername(String username);
+
+    // 팀까지 한번에 가져오는 버전 (Member.team 엔티티 그래프)
+    @EntityGraph(Member.GRAPH_TEAM)
+    List<Member> findWithTeamByUsername(String username);
 }
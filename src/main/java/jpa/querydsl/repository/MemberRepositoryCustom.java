@@ -1,17 +1,89 @@
 package jpa.querydsl.repository;
 
+import jpa.querydsl.Dto.MemberBulkResult;
+import jpa.querydsl.Dto.MemberCursorPage;
 import jpa.querydsl.Dto.MemberSearchCondition;
 import jpa.querydsl.Dto.MemberTeamDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<MemberTeamDto> search(MemberSearchCondition condition);
 
+    /**
+     * search 와 같은 결과. 쿼리 모양별로 캐시해 둔 JPQL 에 파라미터만 바인딩해서 실행한다.
+     */
+    List<MemberTeamDto> searchByTemplate(MemberSearchCondition condition);
+
+    /**
+     * 결과를 한번에 메모리에 올리지 않고 fetchSize 단위로 DB 에서 읽어오면서 흘려보낸다.
+     * 트랜잭션 안에서 호출하고, 다 쓴 스트림은 반드시 닫아야 한다. (try-with-resources)
+     */
+    Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize);
+
+    // ---- 페이징 ----
+    // Pageable 의 Sort 는 memberId, username, age, teamId 로 인덱스 컬럼 순서와 같은 조합을 같은 방향으로만 가능하다.
+    // (그 외는 InvalidMemberSortException. 자세한 조합은 MemberSort)
+    // memberId 가 없으면 마지막에 memberId 가 정렬과 같은 방향으로 붙는다. 정렬이 없으면 memberId 오름차순이다.
+
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * searchPageComplex 와 같은 결과. 컨텐츠와 카운트 쿼리를 각자의 읽기 전용 트랜잭션에서 동시에 실행한다.
+     * 호출한 쪽 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않는다.
+     */
+    Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable);
+
+    /**
+     * searchPageSimple 과 같은 결과를 count(*) over() 를 사용하는 네이티브 쿼리 한번으로 가져온다. (컨텐츠 + 전체 개수)
+     */
+    Page<MemberTeamDto> searchPageWindowed(MemberSearchCondition condition, Pageable pageable);
+
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+
+    MemberCursorPage searchAfter(MemberSearchCondition condition, String cursor, int size);
+
+    // ---- 비동기 버전 ----
+    // 전용 실행기(member.query.concurrency-limit 만큼)에서 작업마다 새 읽기 전용 트랜잭션으로 실행한다.
+    // 여러 검색을 동시에 걸어두고 모아서 쓸 때 사용한다. 호출한 쪽 트랜잭션의 커밋 전 변경은 보이지 않는다.
+
+    CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition);
+
+    /**
+     * searchPageComplex 의 비동기 버전. 컨텐츠와 카운트 쿼리도 서로 겹쳐서 실행한다.
+     */
+    CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable);
+
+    CompletableFuture<Slice<MemberTeamDto>> searchSliceAsync(MemberSearchCondition condition, Pageable pageable);
+
+    CompletableFuture<MemberCursorPage> searchAfterAsync(MemberSearchCondition condition, String cursor, int size);
+
+    // ---- 벌크 연산 ----
+    // condition 에 맞는 회원(search 결과와 같은 대상)을 id 순으로 chunk-size 명씩 나눠서 청크마다 커밋한다. (member.bulk.chunk-size)
+    // 청크마다 flush 하고 영속성 컨텍스트를 비우며, 바뀐 행이 있으면 끝나고 MemberBulkChangedEvent 를 발행한다.
+    // progress 는 청크가 끝날 때마다 지금까지의 결과로 불린다.
+
+    MemberBulkResult bulkAddAge(MemberSearchCondition condition, int delta);
+
+    MemberBulkResult bulkAddAge(MemberSearchCondition condition, int delta, int chunkSize, Consumer<MemberBulkResult> progress);
+
+    /**
+     * teamId 가 null 이면 팀에서 뺀다.
+     */
+    MemberBulkResult bulkChangeTeam(MemberSearchCondition condition, Long teamId);
+
+    MemberBulkResult bulkChangeTeam(MemberSearchCondition condition, Long teamId, int chunkSize, Consumer<MemberBulkResult> progress);
+
+    MemberBulkResult bulkDelete(MemberSearchCondition condition);
+
+    MemberBulkResult bulkDelete(MemberSearchCondition condition, int chunkSize, Consumer<MemberBulkResult> progress);
 }
@@ -1,25 +1,39 @@
 package jpa.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jpa.querydsl.Dto.MemberBulkResult;
+import jpa.querydsl.Dto.MemberCursorPage;
 import jpa.querydsl.Dto.MemberSearchCondition;
 import jpa.querydsl.Dto.MemberTeamDto;
-import jpa.querydsl.Dto.QMemberTeamDto;
 import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.metrics.MemberQueryMetrics;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static jpa.querydsl.Entity.QMember.member;
-import static jpa.querydsl.Entity.QTeam.team;
 import static org.springframework.util.StringUtils.hasText;
 
 @RequiredArgsConstructor
@@ -31,50 +45,59 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
 //        super(Member.class);
 //    }
 
+    // JFR 이벤트(MemberQueryEvent)에 남기는 이름
+    private static final String REPOSITORY = "MemberRepositoryImpl";
+
     private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final MemberSearchTemplateCache templateCache;
+    private final MemberQueryExecutor queryExecutor;
+    private final MemberQueryMetrics queryMetrics;
+    private final MemberBulkExecutor bulkExecutor;
+    private final TeamIdResolver teamIdResolver;
 
     @Override
     public List<MemberTeamDto> search (MemberSearchCondition condition){
 
-            return queryFactory
-                    .select(new QMemberTeamDto(
-                            member.id.as("memberId"),
-                            member.username,
-                            member.age,
-                            team.id.as("teamId"),
-                            team.name.as("teamName"))
-                    )
-                    .from(member)
-                    .join(member.team, team)
-                    .where(
-                            userNameEq(condition.getUsername()),
-                            teamNameEq(condition.getTeamName()),
-                            ageGoe(condition.getAgeGoe()),
-                            ageLoe(condition.getAgeLoe())
-                    )
-                    .fetch();
+            MemberSearchQueryBuilder query = queryOf(condition);
+            if (query == null) {
+                return List.of();
+            }
+            return QueryFlightRecorder.fetch(REPOSITORY, "search", condition, query.contentQuery());
         }
 
+    @Override
+    public List<MemberTeamDto> searchByTemplate(MemberSearchCondition condition) {
+        return templateCache.search(condition);
+    }
+
+    @Override
+    public Stream<MemberTeamDto> streamSearch(MemberSearchCondition condition, int fetchSize) {
+        // DTO 로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않는다.
+        // 드라이버는 fetchSize 만큼씩만 가져오므로 결과가 아무리 커도 힙 사용량이 일정하다.
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return Stream.empty();
+        }
+        return query
+                .contentQuery()
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
 
-        QueryResults<MemberTeamDto> results =
-                queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName"))
-                )
-                .from(member)
-                .join(member.team, team)
-                .where(
-                        userNameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        OrderSpecifier<?>[] orderBy = MemberSort.orderBy(pageable.getSort());
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return emptyPage(pageable);
+        }
+
+        QueryResults<MemberTeamDto> results = query
+                .contentQuery()
+                .orderBy(orderBy)
                 .offset(pageable.getOffset()) // 몇번째 페이지 부터~
                 .limit(pageable.getPageSize()) // 페이지당 몇개까지 ~
                 .fetchResults(); // 컨텐츠용 쿼리, 카운터 쿼리 두번 날림.
@@ -88,60 +111,293 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
 
-        List<MemberTeamDto> content=
-                queryFactory
-                        .select(new QMemberTeamDto(
-                                member.id.as("memberId"),
-                                member.username,
-                                member.age,
-                                team.id.as("teamId"),
-                                team.name.as("teamName"))
-                        )
-                        .from(member)
-                        .join(member.team, team)
-                        .where(
-                                userNameEq(condition.getUsername()),
-                                teamNameEq(condition.getTeamName()),
-                                ageGoe(condition.getAgeGoe()),
-                                ageLoe(condition.getAgeLoe())
-                        )
+        OrderSpecifier<?>[] orderBy = MemberSort.orderBy(pageable.getSort());
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return emptyPage(pageable);
+        }
+
+        List<MemberTeamDto> content = QueryFlightRecorder.fetch(REPOSITORY, "searchPageComplex", condition,
+                query.contentQuery()
+                        .orderBy(orderBy)
                         .offset(pageable.getOffset()) // 몇번째 페이지 부터~
-                        .limit(pageable.getPageSize()) // 페이지당 몇개까지 ~
-                        .fetch();
-
-        JPAQuery<Member> count = queryFactory
-                .select(member)
-                .from(member)
-                .join(member.team, team)
-                .where(
-                        userNameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+                        .limit(pageable.getPageSize())); // 페이지당 몇개까지 ~
+
+        // team 조인 없이 member 테이블만 센다. (팀 조건은 team_id 로 바뀌어 있다)
+        JPAQuery<Long> count = query.countQuery();
 
         // 페이지의 사이즈가 작거나, 마지막페이지의 사이즈가 0이거나 하면 카운트쿼리를 호출 하지않음.
-        // 성능개선!!!
-        return PageableExecutionUtils.getPage(content, pageable, () -> count.fetchCount());
+        // 성능개선!!! (실행/생략 횟수는 member.repository.count.query 메트릭으로 남긴다)
+        return queryMetrics.getPage("searchPageComplex", content, pageable,
+                () -> QueryFlightRecorder.fetchOne(REPOSITORY, "searchPageComplex.count", condition, count));
         //같은 표기법
-        //return PageableExecutionUtils.getPage(content, pageable, count::fetchCount);
+        //return PageableExecutionUtils.getPage(content, pageable, count::fetchOne);
 
         //return new PageImpl<>(content, pageable, total);
     }
 
-        private BooleanExpression userNameEq(String username) {
-            return hasText(username) ? member.username.eq(username) : null;
+    @Override
+    public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable) {
+
+        // 카운트를 다른 커넥션에서 컨텐츠와 동시에 실행해서 응답 시간이 둘의 합이 아니라 긴 쪽이 된다. (컨텐츠는 이 스레드에서)
+        // 카운트가 필요없는 페이지면 (searchPageComplex 와 같은 판단) 카운트는 취소된다.
+        // 정렬은 잘못됐으면 쿼리를 시작하기 전에 실패하도록 여기서 만든다.
+        OrderSpecifier<?>[] orderBy = MemberSort.orderBy(pageable.getSort());
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return emptyPage(pageable);
+        }
+        return queryExecutor.page("searchPageConcurrent",
+                () -> QueryFlightRecorder.fetch(REPOSITORY, "searchPageConcurrent", condition,
+                        query
+                                .contentQuery()
+                                .orderBy(orderBy)
+                                .offset(pageable.getOffset())
+                                .limit(pageable.getPageSize())),
+                () -> QueryFlightRecorder.fetchOne(REPOSITORY, "searchPageConcurrent.count", condition,
+                        query.countQuery()),
+                pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageWindowed(MemberSearchCondition condition, Pageable pageable) {
+
+        // JPQL 에는 윈도우 함수가 없어서 네이티브 쿼리로 작성.
+        // count(*) over() 는 limit 적용 전의 전체 행 수라서 컨텐츠와 전체 개수를 쿼리 한번으로 받을 수 있다.
+        String orderBy = MemberSort.orderBySql(pageable.getSort());
+        List<Long> teamIds = null;
+        if (hasText(condition.getTeamName())) {
+            teamIds = teamIdResolver.resolve(condition.getTeamName());
+            if (teamIds.isEmpty()) {
+                return emptyPage(pageable);
+            }
+        }
+
+        StringBuilder sql = new StringBuilder()
+                .append("select m.member_id, m.username, m.age, t.team_id, t.name, count(*) over() as total_count")
+                .append(" from member m")
+                .append(" join team t on m.team_id = t.team_id")
+                .append(" where 1 = 1");
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (hasText(condition.getUsername())) {
+            sql.append(" and m.username = :username");
+            params.put("username", condition.getUsername());
+        }
+        if (hasText(condition.getTeamName())) {
+            sql.append(" and m.team_id in (:teamIds)");
+            params.put("teamIds", teamIds);
+        }
+        if (condition.getAgeGoe() != null) {
+            sql.append(" and m.age >= :ageGoe");
+            params.put("ageGoe", condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            sql.append(" and m.age <= :ageLoe");
+            params.put("ageLoe", condition.getAgeLoe());
+        }
+        sql.append(orderBy)
+                .append(" limit :limit offset :offset");
+
+        Query query = em.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        query.setParameter("limit", pageable.getPageSize());
+        query.setParameter("offset", pageable.getOffset());
+        // 영속성 컨텍스트에 쌓인 Member, Team 변경분은 조회 전에 flush 되도록 알려준다.
+        query.unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Member.class)
+                .addSynchronizedEntityClass(Team.class);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+
+        List<MemberTeamDto> content = new ArrayList<>(rows.size());
+        long total = 0;
+        for (Object[] row : rows) {
+            content.add(new MemberTeamDto(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    ((Number) row[2]).intValue(),
+                    ((Number) row[3]).longValue(),
+                    (String) row[4]));
+            total = ((Number) row[5]).longValue();
+        }
+
+        // 마지막 페이지를 넘어서 조회하면 행이 없어서 전체 개수도 알 수 없다. 이때만 카운트 쿼리를 따로 날린다.
+        if (content.isEmpty() && pageable.getOffset() > 0) {
+            Long count = new MemberSearchQueryBuilder(queryFactory, condition, teamIds)
+                    .countQuery()
+                    .fetchOne();
+            total = count != null ? count : 0;
+        }
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+
+        // 전체 개수가 필요없는 무한스크롤용. 카운트 쿼리 없이 limit + 1 개를 조회해서 다음 페이지 여부만 판단한다.
+        OrderSpecifier<?>[] orderBy = MemberSort.orderBy(pageable.getSort());
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        List<MemberTeamDto> content = QueryFlightRecorder.fetch(REPOSITORY, "searchSlice", condition,
+                query
+                        .contentQuery()
+                        .orderBy(orderBy)
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize() + 1));
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public MemberCursorPage searchAfter(MemberSearchCondition condition, String cursor, int size) {
+
+        if (size < 1) {
+            throw new InvalidMemberCursorException("size 는 1 이상이어야 합니다: " + size);
+        }
+        Long lastMemberId = MemberCursor.decode(cursor);
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return new MemberCursorPage(List.of(), null);
+        }
+
+        // offset 대신 마지막으로 읽은 id 다음부터 찾아가므로 몇번째 페이지든 인덱스(PK) 탐색 비용만 든다.
+        // 다음 페이지가 있는지 알기 위해 size + 1 개를 조회한다.
+        List<MemberTeamDto> content = QueryFlightRecorder.fetch(REPOSITORY, "searchAfter", condition,
+                query
+                        .contentQuery()
+                        .where(memberIdGt(lastMemberId))
+                        .orderBy(member.id.asc())
+                        .limit(size + 1L));
+
+        if (content.size() <= size) {
+            return new MemberCursorPage(content, null);
+        }
+
+        content = content.subList(0, size);
+        Long nextMemberId = content.get(content.size() - 1).getMemberId();
+        return new MemberCursorPage(content, MemberCursor.encode(nextMemberId));
+    }
+
+    @Override
+    public CompletableFuture<List<MemberTeamDto>> searchAsync(MemberSearchCondition condition) {
+        return queryExecutor.submitAsync(() -> search(condition));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberTeamDto>> searchPageAsync(MemberSearchCondition condition, Pageable pageable) {
+        OrderSpecifier<?>[] orderBy = MemberSort.orderBy(pageable.getSort());
+        MemberSearchQueryBuilder query = queryOf(condition);
+        if (query == null) {
+            return CompletableFuture.completedFuture(emptyPage(pageable));
         }
+        return queryExecutor.pageAsync("searchPageAsync",
+                () -> QueryFlightRecorder.fetch(REPOSITORY, "searchPageAsync", condition,
+                        query
+                                .contentQuery()
+                                .orderBy(orderBy)
+                                .offset(pageable.getOffset())
+                                .limit(pageable.getPageSize())),
+                () -> QueryFlightRecorder.fetchOne(REPOSITORY, "searchPageAsync.count", condition,
+                        query.countQuery()),
+                pageable);
+    }
+
+    @Override
+    public CompletableFuture<Slice<MemberTeamDto>> searchSliceAsync(MemberSearchCondition condition, Pageable pageable) {
+        MemberSort.orderBy(pageable.getSort()); // 정렬이 잘못됐으면 future 가 아니라 여기서 바로 실패한다.
+        return queryExecutor.submitAsync(() -> searchSlice(condition, pageable));
+    }
+
+    @Override
+    public CompletableFuture<MemberCursorPage> searchAfterAsync(MemberSearchCondition condition, String cursor, int size) {
+        return queryExecutor.submitAsync(() -> searchAfter(condition, cursor, size));
+    }
 
-        private BooleanExpression teamNameEq(String teamName) {
-            return hasText(teamName) ? team.name.eq(teamName) : null;
+    @Override
+    public MemberBulkResult bulkAddAge(MemberSearchCondition condition, int delta) {
+        return bulkAddAge(condition, delta, bulkExecutor.defaultChunkSize(), result -> { });
+    }
+
+    @Override
+    public MemberBulkResult bulkAddAge(MemberSearchCondition condition, int delta, int chunkSize, Consumer<MemberBulkResult> progress) {
+        MemberSearchQueryBuilder builder = new MemberSearchQueryBuilder(queryFactory, condition);
+        return runBulk("addAge", builder, chunkSize, progress, idRange -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(delta))
+                .where(builder.bulkConditions())
+                .where(idRange)
+                .execute());
+    }
+
+    @Override
+    public MemberBulkResult bulkChangeTeam(MemberSearchCondition condition, Long teamId) {
+        return bulkChangeTeam(condition, teamId, bulkExecutor.defaultChunkSize(), result -> { });
+    }
+
+    @Override
+    public MemberBulkResult bulkChangeTeam(MemberSearchCondition condition, Long teamId, int chunkSize, Consumer<MemberBulkResult> progress) {
+        if (teamId != null && em.find(Team.class, teamId) == null) {
+            throw new IllegalArgumentException("팀이 없습니다: " + teamId);
         }
+        MemberSearchQueryBuilder builder = new MemberSearchQueryBuilder(queryFactory, condition);
+        return runBulk("changeTeam", builder, chunkSize, progress, idRange -> queryFactory
+                .update(member)
+                // 청크마다 영속성 컨텍스트를 비우므로 참조도 청크마다 얻는다. (쿼리는 나가지 않는다)
+                .set(member.team, teamId != null ? em.getReference(Team.class, teamId) : null)
+                .where(builder.bulkConditions())
+                .where(idRange)
+                .execute());
+    }
 
-        private BooleanExpression ageGoe(Integer ageGoe) {
-            return ageGoe != null ? member.age.goe(ageGoe) : null;
+    @Override
+    public MemberBulkResult bulkDelete(MemberSearchCondition condition) {
+        return bulkDelete(condition, bulkExecutor.defaultChunkSize(), result -> { });
+    }
+
+    @Override
+    public MemberBulkResult bulkDelete(MemberSearchCondition condition, int chunkSize, Consumer<MemberBulkResult> progress) {
+        MemberSearchQueryBuilder builder = new MemberSearchQueryBuilder(queryFactory, condition);
+        return runBulk("delete", builder, chunkSize, progress, idRange -> queryFactory
+                .delete(member)
+                .where(builder.bulkConditions())
+                .where(idRange)
+                .execute());
+    }
+
+    private MemberBulkResult runBulk(String operation, MemberSearchQueryBuilder builder, int chunkSize,
+                                     Consumer<MemberBulkResult> progress, MemberBulkExecutor.ChunkStatement statement) {
+        Long totalRows = builder.bulkCountQuery().fetchOne();
+        return bulkExecutor.run(operation, totalRows != null ? totalRows : 0, chunkSize, progress,
+                (afterId, limit) -> builder.bulkIdQuery(afterId, limit).fetch(), statement);
+    }
+
+    /**
+     * 팀 이름 조건은 TeamIdResolver 로 팀 id 로 바꿔서 조인 없이 member.team_id 로 건다.
+     * @return 없는 팀 이름이면 null. 결과가 없는 것이 확실하므로 쿼리하지 않는다.
+     */
+    private MemberSearchQueryBuilder queryOf(MemberSearchCondition condition) {
+        if (!hasText(condition.getTeamName())) {
+            return new MemberSearchQueryBuilder(queryFactory, condition);
         }
+        List<Long> teamIds = teamIdResolver.resolve(condition.getTeamName());
+        return teamIds.isEmpty() ? null : new MemberSearchQueryBuilder(queryFactory, condition, teamIds);
+    }
+
+    private static <T> Page<T> emptyPage(Pageable pageable) {
+        return new PageImpl<>(List.of(), pageable, 0);
+    }
 
-        private BooleanExpression ageLoe(Integer ageLoe) {
-            return ageLoe != null ? member.age.loe(ageLoe) : null;
+        private BooleanExpression memberIdGt(Long lastMemberId) {
+            return lastMemberId != null ? member.id.gt(lastMemberId) : null;
         }
 }
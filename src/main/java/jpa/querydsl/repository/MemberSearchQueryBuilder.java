@@ -0,0 +1,145 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Dto.QMemberTeamDto;
+
+import java.util.List;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static jpa.querydsl.Entity.QTeam.team;
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 으로 회원 검색 쿼리(컨텐츠, 카운트)를 만든다.
+ * team 조인은 팀 조건이 있거나 팀 컬럼을 조회할 때만 건다.
+ * 팀 이름을 미리 팀 id 로 바꿔서(TeamIdResolver) 넘기면 팀 조건은 조인 없이 member.team_id 로 건다.
+ */
+class MemberSearchQueryBuilder {
+
+    private final JPAQueryFactory queryFactory;
+    private final MemberSearchCondition condition;
+    // condition.teamName 의 팀 id 들. null 이면 team.name 으로 건다.
+    private final List<Long> teamIds;
+
+    MemberSearchQueryBuilder(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        this(queryFactory, condition, null);
+    }
+
+    MemberSearchQueryBuilder(JPAQueryFactory queryFactory, MemberSearchCondition condition, List<Long> teamIds) {
+        this.queryFactory = queryFactory;
+        this.condition = condition;
+        this.teamIds = teamIds;
+    }
+
+    /**
+     * MemberTeamDto 조회 쿼리. 프로젝션에 team.name 이 있어서 항상 team 을 조인한다.
+     */
+    JPAQuery<MemberTeamDto> contentQuery() {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName"))
+                )
+                .from(member)
+                .join(member.team, team)
+                .where(conditions());
+    }
+
+    /**
+     * 카운트 쿼리. 팀 조건이 없으면 team 을 조인하지 않고 member 테이블만 센다.
+     * 컨텐츠 쿼리의 inner join 이 걸러내는 팀 없는 회원은 team_id is not null 로 똑같이 제외한다.
+     */
+    JPAQuery<Long> countQuery() {
+        JPAQuery<Long> query = queryFactory
+                .select(member.count())
+                .from(member);
+
+        if (needsTeamJoin()) {
+            query.join(member.team, team);
+        } else {
+            query.where(member.team.isNotNull());
+        }
+        return query.where(conditions());
+    }
+
+    /**
+     * 벌크 update/delete 의 where 조건. 벌크 연산에는 조인을 걸 수 없어서 팀 조건은 서브쿼리로 건다.
+     * 검색 결과와 같은 회원이 대상이 되도록 팀 없는 회원은 제외한다.
+     */
+    BooleanExpression[] bulkConditions() {
+        return new BooleanExpression[]{
+                userNameEq(condition.getUsername()),
+                hasText(condition.getTeamName())
+                        ? member.team.id.in(JPAExpressions.select(team.id).from(team).where(team.name.eq(condition.getTeamName())))
+                        : member.team.isNotNull(),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    /**
+     * 벌크 대상 회원 수. 진행률을 낼 때만 쓴다.
+     */
+    JPAQuery<Long> bulkCountQuery() {
+        return queryFactory
+                .select(member.count())
+                .from(member)
+                .where(bulkConditions());
+    }
+
+    /**
+     * afterId 다음부터 limit 명의 벌크 대상 회원 id (id 순). 청크 하나의 범위다.
+     */
+    JPAQuery<Long> bulkIdQuery(Long afterId, int limit) {
+        return queryFactory
+                .select(member.id)
+                .from(member)
+                .where(bulkConditions())
+                .where(afterId != null ? member.id.gt(afterId) : null)
+                .orderBy(member.id.asc())
+                .limit(limit);
+    }
+
+    boolean needsTeamJoin() {
+        return hasText(condition.getTeamName()) && teamIds == null;
+    }
+
+    private BooleanExpression[] conditions() {
+        return new BooleanExpression[]{
+                userNameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        };
+    }
+
+    private BooleanExpression userNameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        if (!hasText(teamName)) {
+            return null;
+        }
+        if (teamIds != null) {
+            return teamIds.size() == 1 ? member.team.id.eq(teamIds.get(0)) : member.team.id.in(teamIds);
+        }
+        return team.name.eq(teamName);
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
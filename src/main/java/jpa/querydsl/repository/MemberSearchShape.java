@@ -0,0 +1,68 @@
+package jpa.querydsl.repository;
+
+import jpa.querydsl.Dto.MemberSearchCondition;
+
+import java.util.StringJoiner;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 의 어떤 필드가 채워져 있는지(쿼리 모양)를 비트로 나타낸다.
+ * 필드가 4개라서 모양은 16가지 뿐이다.
+ */
+public final class MemberSearchShape {
+
+    public static final int USERNAME = 1;
+    public static final int TEAM_NAME = 1 << 1;
+    public static final int AGE_GOE = 1 << 2;
+    public static final int AGE_LOE = 1 << 3;
+
+    public static final int SHAPE_COUNT = 1 << 4;
+
+    private MemberSearchShape() {
+    }
+
+    public static int of(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    public static boolean has(int shape, int field) {
+        return (shape & field) != 0;
+    }
+
+    /**
+     * 메트릭 태그 등에 쓰는 사람이 읽을 수 있는 이름. ex) "username+ageGoe", 조건이 없으면 "none"
+     */
+    public static String tag(int shape) {
+        if (shape == 0) {
+            return "none";
+        }
+        StringJoiner joiner = new StringJoiner("+");
+        if (has(shape, USERNAME)) {
+            joiner.add("username");
+        }
+        if (has(shape, TEAM_NAME)) {
+            joiner.add("teamName");
+        }
+        if (has(shape, AGE_GOE)) {
+            joiner.add("ageGoe");
+        }
+        if (has(shape, AGE_LOE)) {
+            joiner.add("ageLoe");
+        }
+        return joiner.toString();
+    }
+}
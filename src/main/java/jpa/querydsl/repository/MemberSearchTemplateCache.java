@@ -0,0 +1,129 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Dto.QMemberTeamDto;
+import jpa.querydsl.metrics.MemberQueryEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static jpa.querydsl.Entity.QTeam.team;
+import static jpa.querydsl.repository.MemberSearchShape.*;
+
+/**
+ * 회원 검색 쿼리를 모양(MemberSearchShape)별로 한번만 JPQL 로 만들어 두고 재사용한다.
+ * 매 요청마다 Querydsl 표현식 트리를 만들고 JPQL 로 직렬화하는 대신 캐시된 JPQL 에 파라미터만 바인딩한다.
+ * JPQL 문자열이 항상 같으므로 하이버네이트의 쿼리 플랜 캐시도 그대로 재사용된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchTemplateCache {
+
+    // 값 대신 이름 있는 파라미터로 쿼리를 만들어 두고 실행할 때 값을 바인딩한다.
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+
+    private static final QMemberTeamDto PROJECTION = new QMemberTeamDto(
+            member.id.as("memberId"),
+            member.username,
+            member.age,
+            team.id.as("teamId"),
+            team.name.as("teamName"));
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    private final AtomicReferenceArray<Template> templates = new AtomicReferenceArray<>(SHAPE_COUNT);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberQueryEvent event = QueryFlightRecorder.begin();
+        long start = System.nanoTime();
+        Template template = template(MemberSearchShape.of(condition));
+
+        Map<ParamExpression<?>, Object> params = new HashMap<>(4);
+        params.put(USERNAME_PARAM, condition.getUsername());
+        params.put(TEAM_NAME_PARAM, condition.getTeamName());
+        params.put(AGE_GOE_PARAM, condition.getAgeGoe());
+        params.put(AGE_LOE_PARAM, condition.getAgeLoe());
+
+        Query query = em.createQuery(template.jpql());
+        JPAUtil.setConstants(query, template.constants(), params);
+        long created = System.nanoTime();
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        long executed = System.nanoTime();
+
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(PROJECTION.newInstance(row));
+        }
+
+        // 캐시 히트면 직렬화 시간은 템플릿 조회 + createQuery 뿐이다.
+        QueryFlightRecorder.commit(event, "MemberRepositoryImpl", "searchByTemplate", condition, result.size(),
+                created - start, executed - created, System.nanoTime() - executed);
+        return result;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private Template template(int shape) {
+        Template template = templates.get(shape);
+        if (template != null) {
+            hits.increment();
+            return template;
+        }
+        // 동시에 처음 들어온 요청이 같은 템플릿을 두 번 만들 수 있지만 결과가 같으므로 상관없다.
+        misses.increment();
+        template = compile(shape);
+        templates.compareAndSet(shape, null, template);
+        return template;
+    }
+
+    private Template compile(int shape) {
+        JPAQuery<MemberTeamDto> query = queryFactory
+                .select(PROJECTION)
+                .from(member)
+                .join(member.team, team)
+                .where(
+                        has(shape, USERNAME) ? member.username.eq(USERNAME_PARAM) : null,
+                        has(shape, TEAM_NAME) ? team.name.eq(TEAM_NAME_PARAM) : null,
+                        has(shape, AGE_GOE) ? member.age.goe(AGE_GOE_PARAM) : null,
+                        has(shape, AGE_LOE) ? member.age.loe(AGE_LOE_PARAM) : null
+                );
+
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new Template(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private record Template(String jpql, List<Object> constants) {
+    }
+}
@@ -0,0 +1,104 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static jpa.querydsl.Entity.QMember.member;
+
+/**
+ * Pageable 의 Sort 를 회원 검색 쿼리의 order by 로 바꾼다.
+ * 인덱스로 정렬할 수 있는 MemberTeamDto 속성만 허용한다. (member_id = PK, username / age / team_id = member 인덱스)
+ * teamName 처럼 조인한 테이블 컬럼으로 정렬하면 결과 전체를 정렬(filesort)해야 하므로 받지 않는다.
+ * 속성 조합도 인덱스 컬럼의 앞부분과 같은 순서, 같은 방향이어야 한다. (age,desc&username,asc 처럼 인덱스가 없는 조합은 받지 않는다)
+ * 같은 값끼리 순서가 페이지마다 바뀌지 않도록 memberId 가 없으면 마지막에 member.id 를 붙인다.
+ * member.id 는 정렬과 같은 방향이다. (age desc 면 idx_member_age 를 거꾸로 읽어서 정렬 없이 끝난다)
+ * 보조 인덱스에는 뒤에 PK 가 붙어 있으므로 인덱스 컬럼을 끝까지 쓴 정렬은 member.id 까지 인덱스 순서다.
+ * 중간까지만 쓴 정렬(username 만 등)은 값이 같은 회원끼리만 member.id 로 다시 정렬한다.
+ */
+final class MemberSort {
+
+    private record Column(ComparableExpressionBase<?> path, String sql) {
+    }
+
+    private static final Map<String, Column> SORTABLE = Map.of(
+            "memberId", new Column(member.id, "m.member_id"),
+            "username", new Column(member.username, "m.username"),
+            "age", new Column(member.age, "m.age"),
+            "teamId", new Column(member.team.id, "m.team_id"));
+
+    // 인덱스 순서대로 읽을 수 있는 정렬. 이 중 하나의 앞부분이어야 한다. (뒤의 memberId 는 보조 인덱스에 붙은 PK)
+    private static final List<List<String>> INDEXED = List.of(
+            List.of("memberId"),
+            List.of("age", "memberId"),
+            List.of("username", "age", "teamId", "memberId"),
+            List.of("teamId", "age", "username", "memberId"));
+
+    private MemberSort() {
+    }
+
+    static OrderSpecifier<?>[] orderBy(Sort sort) {
+        validate(sort);
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        boolean hasMemberId = false;
+        boolean ascending = true;
+        for (Sort.Order order : sort) {
+            Column column = column(order);
+            orders.add(order.isAscending() ? column.path().asc() : column.path().desc());
+            hasMemberId |= column.path() == member.id;
+            ascending = order.isAscending();
+        }
+        if (!hasMemberId) {
+            orders.add(new OrderSpecifier<>(ascending ? Order.ASC : Order.DESC, member.id));
+        }
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+
+    /**
+     * 네이티브 쿼리(searchPageWindowed)용 order by 절. 별칭은 member m 기준.
+     */
+    static String orderBySql(Sort sort) {
+        validate(sort);
+        StringBuilder sql = new StringBuilder(" order by ");
+        boolean hasMemberId = false;
+        boolean ascending = true;
+        for (Sort.Order order : sort) {
+            Column column = column(order);
+            sql.append(column.sql()).append(order.isAscending() ? " asc" : " desc").append(", ");
+            hasMemberId |= column.path() == member.id;
+            ascending = order.isAscending();
+        }
+        if (!hasMemberId) {
+            sql.append(ascending ? "m.member_id asc, " : "m.member_id desc, ");
+        }
+        return sql.substring(0, sql.length() - 2);
+    }
+
+    private static void validate(Sort sort) {
+        List<String> properties = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            column(order);
+            properties.add(order.getProperty());
+        }
+        boolean sameDirection = sort.stream().map(Sort.Order::getDirection).distinct().count() <= 1;
+        boolean indexed = properties.isEmpty() || INDEXED.stream()
+                .anyMatch(columns -> columns.size() >= properties.size()
+                        && columns.subList(0, properties.size()).equals(properties));
+        if (!sameDirection || !indexed) {
+            throw new InvalidMemberSortException(sort, INDEXED);
+        }
+    }
+
+    private static Column column(Sort.Order order) {
+        Column column = SORTABLE.get(order.getProperty());
+        if (column == null) {
+            throw new InvalidMemberSortException(order.getProperty(), SORTABLE.keySet());
+        }
+        return column;
+    }
+}
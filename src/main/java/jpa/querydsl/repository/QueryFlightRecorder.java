@@ -0,0 +1,114 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionUtils;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.Query;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.metrics.MemberQueryEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * Querydsl 쿼리를 실행하면서 MemberQueryEvent(JFR)를 남긴다.
+ * JFR 기록 중이 아니면 그냥 query.fetch() 를 부른다.
+ * 기록 중에는 Querydsl 의 createQuery() 와 getResultList() 를 따로 불러서 단계별 시간을 잰다.
+ * 쿼리는 Querydsl 이 만드므로 힌트, 락 모드, flush 모드, 프로젝션 처리가 query.fetch() 와 같다.
+ * 하이버네이트에서는 Querydsl 이 DTO 변환을 ResultTransformer 로 걸어서 실행 안에서 하므로 실행 시간에 들어간다.
+ * 변환기를 못 거는 JPA 구현이면 결과 행이 그대로 오고, 그때만 여기서 프로젝션하고 그 시간을 따로 잰다.
+ */
+final class QueryFlightRecorder {
+
+    private QueryFlightRecorder() {
+    }
+
+    static <T> List<T> fetch(String repository, String method,
+                             MemberSearchCondition condition, JPAQuery<T> query) {
+        MemberQueryEvent event = begin();
+        if (event == null) {
+            return query.fetch();
+        }
+
+        long start = System.nanoTime();
+        Query jpaQuery = query.createQuery();
+        long created = System.nanoTime();
+        List<?> rows = jpaQuery.getResultList();
+        long executed = System.nanoTime();
+        List<T> result = project(query.getMetadata().getProjection(), rows);
+        long projected = System.nanoTime();
+
+        commit(event, repository, method, condition, result.size(),
+                created - start, executed - created, projected - executed);
+        return result;
+    }
+
+    /**
+     * 카운트처럼 한 행을 돌려주는 쿼리
+     */
+    static <T> T fetchOne(String repository, String method,
+                          MemberSearchCondition condition, JPAQuery<T> query) {
+        List<T> rows = fetch(repository, method, condition, query);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 단계를 직접 재는 쪽(MemberSearchTemplateCache)에서 쓴다. 기록 중이 아니면 null.
+     */
+    static MemberQueryEvent begin() {
+        MemberQueryEvent event = new MemberQueryEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void commit(MemberQueryEvent event, String repository, String method, MemberSearchCondition condition,
+                       int rows, long serializationTime, long executionTime, long projectionTime) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.repository = repository;
+            event.method = method;
+            describe(event, condition);
+            event.rows = rows;
+            event.serializationTime = serializationTime;
+            event.executionTime = executionTime;
+            event.projectionTime = projectionTime;
+            event.commit();
+        }
+    }
+
+    private static void describe(MemberQueryEvent event, MemberSearchCondition condition) {
+        if (condition == null) {
+            event.shape = "none";
+            return;
+        }
+        event.shape = MemberSearchShape.tag(MemberSearchShape.of(condition));
+        event.username = hasText(condition.getUsername());
+        event.teamName = hasText(condition.getTeamName());
+        event.ageGoe = condition.getAgeGoe() != null;
+        event.ageLoe = condition.getAgeLoe() != null;
+    }
+
+    // Querydsl 이 FactoryExpressionUtils.wrap 한 프로젝션을 쓰는 것과 같이 맞춘다.
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> project(Expression<?> projection, List<?> rows) {
+        if (!(projection instanceof FactoryExpression<?> factory)
+                || rows.isEmpty() || !(rows.get(0) instanceof Object[])) {
+            return (List<T>) rows;
+        }
+        FactoryExpression<?> wrapped = FactoryExpressionUtils.wrap(factory);
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add((T) wrapped.newInstance((Object[]) row));
+        }
+        return result;
+    }
+}
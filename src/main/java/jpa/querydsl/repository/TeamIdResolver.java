@@ -0,0 +1,251 @@
+package jpa.querydsl.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Entity.Team;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static jpa.querydsl.Entity.QTeam.team;
+
+/**
+ * 팀 이름 -> 팀 id 캐시. 회원 검색의 팀 조건을 team 조인 없이 member.team_id 로 걸기 위해 쓴다.
+ * 팀 이름은 중복될 수 있어서 id 목록이고, 없는 이름은 빈 목록으로 캐시한다. (검색은 DB 에 가지 않고 빈 결과)
+ * 팀이 저장/수정/삭제되면 커밋 후에 전부 비운다. 팀은 적고 거의 바뀌지 않아서 이름별로 찾아 지우지 않는다.
+ * 아직 커밋하지 않은 팀 변경이 있는 트랜잭션에서는 캐시를 쓰지도 채우지도 않는다. (롤백되면 캐시가 틀리게 된다)
+ * 캐시를 보기 전에 team 테이블에 대한 자동 flush 를 먼저 해서, team 을 조인하던 쿼리처럼 flush 전의 팀 변경도 보이게 한다.
+ * JPQL 벌크 연산이나 네이티브 SQL 로 바꾼 팀은 이벤트가 없으므로 expire-after-write 가 지나야 반영된다.
+ */
+@Component
+public class TeamIdResolver {
+
+    public static final String CACHE_NAME = "team-name-resolver";
+
+    // 팀을 바꾼 트랜잭션 표시 (TransactionSynchronizationManager 리소스 키)
+    private static final Object TEAMS_CHANGED = new Object();
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final Cache<String, List<Long>> cache;
+    // DB 에서 읽어 캐시에 넣은 수. (트랜잭션 안의 변경 때문에 넣지 않은 것은 빠진다)
+    private final LongAdder puts = new LongAdder();
+    // 비울 때마다 올린다. DB 에서 읽는 동안 비워졌으면 읽은 값은 이미 낡았을 수 있으므로 넣지 않는다.
+    private final AtomicLong generation = new AtomicLong();
+    private Set<String> teamQuerySpaces;
+
+    public TeamIdResolver(JPAQueryFactory queryFactory,
+                          EntityManager em,
+                          EntityManagerFactory emf,
+                          MeterRegistry meterRegistry,
+                          @Value("${member.team-resolver.max-size:10000}") long maxSize,
+                          @Value("${member.team-resolver.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.queryFactory = queryFactory;
+        this.em = em;
+        this.emf = emf;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @PostConstruct
+    void registerListeners() {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        teamQuerySpaces = Set.of(sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Team.class)
+                .getSynchronizedQuerySpaces());
+        EventListenerRegistry registry = sessionFactory
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        TeamChangeListener listener = new TeamChangeListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        TeamCommitListener commitListener = new TeamCommitListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, commitListener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, commitListener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, commitListener);
+    }
+
+    /**
+     * @return 이름이 teamName 인 팀 id 들. 없으면 빈 목록
+     */
+    public List<Long> resolve(String teamName) {
+        flushPendingTeamChanges();
+        if (teamsChangedInTransaction()) {
+            return load(teamName);
+        }
+        List<Long> cached = cache.getIfPresent(teamName);
+        if (cached != null) {
+            return cached;
+        }
+        long readGeneration = generation.get();
+        List<Long> teamIds = load(teamName);
+        // 읽은 값을 확인한 다음에 넣는다. (cache.get(key, loader) 는 확인 전에 다른 스레드에게 보인다)
+        // 읽는 사이 다른 트랜잭션이 팀을 바꿔 커밋했으면 (generation 이 올라갔으면) 넣지 않는다.
+        // compute 는 키 단위로 잠그므로 invalidateAll 과 엇갈려도 낡은 값이 남지 않는다.
+        if (!teamsChangedInTransaction()) {
+            boolean[] put = {false};
+            cache.asMap().compute(teamName, (name, current) -> {
+                if (generation.get() != readGeneration) {
+                    return current;
+                }
+                put[0] = true;
+                return teamIds;
+            });
+            if (put[0]) {
+                puts.increment();
+            }
+        }
+        return teamIds;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long puts() {
+        return puts.sum();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private List<Long> load(String teamName) {
+        return List.copyOf(queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .fetch());
+    }
+
+    // 아직 flush 하지 않은 팀 저장/수정/삭제가 있으면 내보낸다. 나가면 TeamChangeListener 가 트랜잭션을 표시한다.
+    // FlushMode 가 AUTO 가 아니면 (읽기 전용 트랜잭션 등) 하이버네이트가 알아서 건너뛴다.
+    private void flushPendingTeamChanges() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            em.unwrap(SessionImplementor.class).autoFlushIfRequired(teamQuerySpaces);
+        }
+    }
+
+    private static boolean teamsChangedInTransaction() {
+        return TransactionSynchronizationManager.hasResource(TEAMS_CHANGED);
+    }
+
+    // flush 시점. 이 트랜잭션이 끝날 때까지 캐시를 쓰지 않도록 표시한다.
+    private class TeamChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            markChanged(event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            markChanged(event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            markChanged(event.getEntity());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+
+        private void markChanged(Object entity) {
+            if (!(entity instanceof Team) || !TransactionSynchronizationManager.isSynchronizationActive()
+                    || teamsChangedInTransaction()) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(TEAMS_CHANGED, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TEAMS_CHANGED);
+                }
+            });
+        }
+    }
+
+    // 커밋 후. 다른 트랜잭션이 채운 값도 틀렸을 수 있으므로 전부 비운다.
+    private class TeamCommitListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            invalidate(event.getEntity());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            invalidate(event.getEntity());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            invalidate(event.getEntity());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.getMappedClass() == Team.class;
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        private void invalidate(Object entity) {
+            if (entity instanceof Team) {
+                invalidateAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package jpa.querydsl.repository;
+
+import jpa.querydsl.Entity.Team;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+}
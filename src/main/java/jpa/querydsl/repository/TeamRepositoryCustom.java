@@ -0,0 +1,14 @@
+package jpa.querydsl.repository;
+
+import jpa.querydsl.Dto.TeamMembersDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * 팀 한 페이지와 각 팀의 회원. 팀 수와 상관없이 팀 쿼리 1번 + memberList 쿼리 (팀 수 / Team.MEMBER_LIST_BATCH_SIZE)번.
+     * 페이지 크기가 MEMBER_LIST_BATCH_SIZE 이하면 쿼리 2번 (+ 필요하면 카운트)
+     */
+    Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable);
+}
@@ -0,0 +1,70 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jpa.querydsl.Dto.MemberDto;
+import jpa.querydsl.Dto.QMemberDto;
+import jpa.querydsl.Dto.TeamMembersDto;
+import jpa.querydsl.Entity.Team;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static jpa.querydsl.Entity.QMember.member;
+import static jpa.querydsl.Entity.QTeam.team;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+
+    // 컬렉션 fetch join 은 페이징을 메모리에서 하므로 쓰지 않는다.
+    // 팀만 페이징해서 읽고, 이 페이지 팀들의 회원은 team_id IN 쿼리 한번으로 읽어서 팀별로 나눈다.
+    // (memberList 의 @BatchSize 에 맡기면 페이지 크기가 배치 크기보다 클 때 쿼리가 여러 번 나간다)
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TeamMembersDto> findTeamsWithMembers(Pageable pageable) {
+        List<Team> teams = queryFactory
+                .selectFrom(team)
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        Map<Long, List<MemberDto>> membersByTeam = findMembersByTeam(teams.stream().map(Team::getId).toList());
+        List<TeamMembersDto> content = teams.stream()
+                .map(findTeam -> new TeamMembersDto(findTeam.getId(), findTeam.getName(),
+                        membersByTeam.getOrDefault(findTeam.getId(), List.of())))
+                .toList();
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(team.count())
+                .from(team);
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    // 팀 안의 회원은 member_id 순서
+    private Map<Long, List<MemberDto>> findMembersByTeam(List<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return Map.of();
+        }
+        QMemberDto memberDto = new QMemberDto(member.username, member.age);
+        return queryFactory
+                .select(member.team.id, memberDto)
+                .from(member)
+                .where(member.team.id.in(teamIds))
+                .orderBy(member.team.id.asc(), member.id.asc())
+                .fetch()
+                .stream()
+                .collect(groupingBy(row -> row.get(member.team.id), mapping(row -> row.get(memberDto), toList())));
+    }
+}
@@ -0,0 +1,15 @@
+package jpa.querydsl.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 대량 등록의 청크 크기가 1 보다 작을 때. API 에서는 400 으로 응답한다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidChunkSizeException extends RuntimeException {
+
+    public InvalidChunkSizeException(int chunkSize) {
+        super("chunkSize 는 1 이상이어야 합니다: " + chunkSize);
+    }
+}
@@ -0,0 +1,21 @@
+package jpa.querydsl.service;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 대량 등록 입력의 한 줄을 읽을 수 없을 때. API 에서는 400 으로 응답한다.
+ * 앞의 청크는 이미 커밋되어 있으므로 몇번째 줄인지 알려준다.
+ */
+@Getter
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportLineException extends RuntimeException {
+
+    private final long lineNumber;
+
+    public InvalidImportLineException(long lineNumber, String line, Throwable cause) {
+        super(lineNumber + "번째 줄을 읽을 수 없습니다: " + line, cause);
+        this.lineNumber = lineNumber;
+    }
+}
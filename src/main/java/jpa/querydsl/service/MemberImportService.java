@@ -0,0 +1,184 @@
+package jpa.querydsl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberImportResult;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.repository.MemberJpaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static jpa.querydsl.Entity.QTeam.team;
+
+/**
+ * 회원 대량 등록.
+ * 입력을 한 줄씩 읽어서 chunkSize 만큼 모이면 트랜잭션 하나로 저장하고 영속성 컨텍스트를 비운다.
+ * 입력 크기와 상관없이 메모리에는 청크 하나와 팀 이름 -> id 맵만 남는다.
+ * 중간에 실패하면 이미 커밋된 청크는 남아있다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int defaultChunkSize;
+
+    public MemberImportService(EntityManager em,
+                               JPAQueryFactory queryFactory,
+                               MemberJpaRepository memberJpaRepository,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${member.import.chunk-size:1000}") int defaultChunkSize) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.memberJpaRepository = memberJpaRepository;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public MemberImportResult importMembers(Reader input, Format format) {
+        return importMembers(input, format, defaultChunkSize);
+    }
+
+    /**
+     * CSV: username,age,teamName (첫 줄이 username 으로 시작하면 헤더로 보고 건너뜀)
+     * NDJSON: {"username":"member1","age":10,"teamName":"teamA"} 한 줄에 하나
+     */
+    public MemberImportResult importMembers(Reader input, Format format, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new InvalidChunkSizeException(chunkSize);
+        }
+        long start = System.currentTimeMillis();
+        ImportContext context = new ImportContext();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(input)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && line.startsWith("username"))) {
+                    continue;
+                }
+                chunk.add(parse(line, format, lineNumber));
+                if (chunk.size() == chunkSize) {
+                    saveChunk(chunk, context);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("회원 등록 입력을 읽지 못했습니다.", e);
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, context);
+        }
+
+        MemberImportResult result = new MemberImportResult(
+                context.rows, context.teamsCreated, context.chunks, System.currentTimeMillis() - start);
+        log.info("member import done. {}", result);
+        return result;
+    }
+
+    private void saveChunk(List<Row> chunk, ImportContext context) {
+        tx.executeWithoutResult(status -> {
+            resolveTeams(chunk, context);
+
+            List<Member> members = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                Member member = new Member(row.username(), row.age());
+                if (row.teamName() != null) {
+                    // getReference 는 쿼리를 날리지 않는다. 팀의 memberList 를 건드리지 않도록 setTeam 만 한다.
+                    member.setTeam(em.getReference(Team.class, context.teamIds.get(row.teamName())));
+                }
+                members.add(member);
+            }
+            memberJpaRepository.saveAll(members);
+
+            em.flush();
+            em.clear();
+        });
+        context.rows += chunk.size();
+        context.chunks++;
+    }
+
+    /**
+     * 처음 보는 팀 이름만 청크당 쿼리 한번으로 찾고, DB 에도 없으면 새로 만든다.
+     */
+    private void resolveTeams(List<Row> chunk, ImportContext context) {
+        Set<String> unknown = new HashSet<>();
+        for (Row row : chunk) {
+            if (row.teamName() != null && !context.teamIds.containsKey(row.teamName())) {
+                unknown.add(row.teamName());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+
+        List<Team> found = queryFactory
+                .selectFrom(team)
+                .where(team.name.in(unknown))
+                .fetch();
+        for (Team team : found) {
+            context.teamIds.putIfAbsent(team.getName(), team.getId());
+        }
+
+        for (String name : unknown) {
+            if (!context.teamIds.containsKey(name)) {
+                Team team = new Team(name);
+                em.persist(team);
+                context.teamIds.put(name, team.getId());
+                context.teamsCreated++;
+            }
+        }
+    }
+
+    private Row parse(String line, Format format, long lineNumber) {
+        try {
+            if (format == Format.NDJSON) {
+                JsonNode node = objectMapper.readTree(line);
+                JsonNode teamName = node.get("teamName");
+                return new Row(node.get("username").asText(), node.get("age").asInt(),
+                        teamName == null || teamName.isNull() ? null : teamName.asText());
+            }
+            String[] columns = line.split(",", -1);
+            String teamName = columns.length > 2 && !columns[2].isBlank() ? columns[2].trim() : null;
+            return new Row(columns[0].trim(), Integer.parseInt(columns[1].trim()), teamName);
+        } catch (IOException | RuntimeException e) {
+            throw new InvalidImportLineException(lineNumber, line, e);
+        }
+    }
+
+    private record Row(String username, int age, String teamName) {
+    }
+
+    private static class ImportContext {
+        private final Map<String, Long> teamIds = new HashMap<>();
+        private long rows;
+        private long teamsCreated;
+        private long chunks;
+    }
+}
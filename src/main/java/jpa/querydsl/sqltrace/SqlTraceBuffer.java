@@ -0,0 +1,84 @@
+package jpa.querydsl.sqltrace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 최근 SQL 추적 기록을 담는 락 없는 링 버퍼. 꽉 차면 가장 오래된 것부터 덮어쓴다.
+ * 쓰는 쪽은 시퀀스 증가(CAS 한번)와 배열 칸 교체만 한다.
+ */
+public class SqlTraceBuffer {
+
+    private final AtomicReferenceArray<SqlTraceEntry> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 통계 (남기지 않은 SQL 도 센다)
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    public SqlTraceBuffer(int size) {
+        int capacity = Integer.highestOneBit(Math.max(2, size - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    long nextSequence() {
+        return sequence.getAndIncrement();
+    }
+
+    void add(SqlTraceEntry entry) {
+        slots.set((int) (entry.sequence() & mask), entry);
+        if ("slow".equals(entry.reason())) {
+            slow.increment();
+        } else {
+            sampled.increment();
+        }
+    }
+
+    void countStatement() {
+        statements.increment();
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    public long getSlowCount() {
+        return slow.sum();
+    }
+
+    /**
+     * 최근 것부터.
+     */
+    public List<SqlTraceEntry> recent() {
+        List<SqlTraceEntry> entries = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            SqlTraceEntry entry = slots.get(i);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingLong(SqlTraceEntry::sequence).reversed());
+        return entries;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package jpa.querydsl.sqltrace;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * sql.trace.enabled=true(기본)면 DataSource 빈을 TracingDataSource 로 감싼다.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlTraceProperties.class)
+@ConditionalOnProperty(name = "sql.trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    @Bean
+    SqlTraceBuffer sqlTraceBuffer(SqlTraceProperties properties) {
+        return new SqlTraceBuffer(properties.getBufferSize());
+    }
+
+    @Bean
+    static BeanPostProcessor tracingDataSourcePostProcessor(ObjectProvider<SqlTraceBuffer> buffer,
+                                                            ObjectProvider<SqlTraceProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+                    return new TracingDataSource(dataSource, buffer.getObject(), properties.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    SqlTraceEndpoint sqlTraceEndpoint(SqlTraceBuffer buffer, SqlTraceProperties properties) {
+        return new SqlTraceEndpoint(buffer, properties);
+    }
+}
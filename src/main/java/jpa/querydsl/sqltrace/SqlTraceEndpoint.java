@@ -0,0 +1,53 @@
+package jpa.querydsl.sqltrace;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * sqltrace - 최근 느린/샘플링된 SQL 과 바인딩 값(include-values 일 때만 값, 아니면 타입).
+ * 실행된 SQL 이 보이므로 기본으로 JMX 에만 노출한다. (management.endpoints.jmx.exposure)
+ * limit 으로 개수 제한, clear 로 비운다.
+ */
+@Endpoint(id = "sqltrace")
+public class SqlTraceEndpoint {
+
+    private final SqlTraceBuffer buffer;
+    private final SqlTraceProperties properties;
+
+    public SqlTraceEndpoint(SqlTraceBuffer buffer, SqlTraceProperties properties) {
+        this.buffer = buffer;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, Object> trace(@Nullable Integer limit) {
+        List<SqlTraceEntry> entries = buffer.recent();
+        if (limit != null && limit < 0) {
+            throw new InvalidEndpointRequestException("limit 은 0 이상이어야 합니다: " + limit, "limit 은 0 이상이어야 합니다.");
+        }
+        if (limit != null && limit < entries.size()) {
+            entries = entries.subList(0, limit);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sampleRate", properties.getSampleRate());
+        result.put("slowThresholdMillis", properties.getSlowThreshold().toMillis());
+        result.put("capacity", buffer.capacity());
+        result.put("statements", buffer.getStatementCount());
+        result.put("sampled", buffer.getSampledCount());
+        result.put("slow", buffer.getSlowCount());
+        result.put("entries", entries);
+        return result;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        buffer.clear();
+    }
+}
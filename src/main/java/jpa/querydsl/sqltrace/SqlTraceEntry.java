@@ -0,0 +1,22 @@
+package jpa.querydsl.sqltrace;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 링 버퍼에 남는 SQL 실행 한 건.
+ *
+ * @param sequence  남긴 순서
+ * @param batchSize executeBatch 면 묶인 건수 (바인딩 값은 첫번째 것만), 아니면 0
+ * @param reason    sampled / slow
+ */
+public record SqlTraceEntry(long sequence,
+                            Instant executedAt,
+                            String thread,
+                            String sql,
+                            List<String> parameters,
+                            int batchSize,
+                            long elapsedMicros,
+                            String reason,
+                            String error) {
+}
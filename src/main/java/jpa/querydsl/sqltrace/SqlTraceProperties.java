@@ -0,0 +1,44 @@
+package jpa.querydsl.sqltrace;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * SQL 추적 설정 (sql.trace.*)
+ */
+@Data
+@ConfigurationProperties("sql.trace")
+public class SqlTraceProperties {
+
+    /**
+     * false 면 DataSource 를 감싸지 않는다. (오버헤드 0)
+     */
+    private boolean enabled = true;
+
+    /**
+     * 느리지 않은 SQL 중 바인딩 값까지 남길 비율. 0.0 ~ 1.0
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * 이 시간 이상 걸린 SQL 은 샘플링과 상관없이 남긴다.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * 최근 몇 건을 들고 있을지. 2의 거듭제곱으로 올림한다.
+     */
+    private int bufferSize = 1024;
+
+    /**
+     * 바인딩 값 하나를 문자열로 남길 때 최대 길이
+     */
+    private int maxValueLength = 200;
+
+    /**
+     * false 면 바인딩 값 대신 타입만 남긴다. (회원 이름 같은 데이터가 엔드포인트로 나가지 않도록)
+     */
+    private boolean includeValues = false;
+}
@@ -0,0 +1,178 @@
+package jpa.querydsl.sqltrace;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 실행되는 SQL 을 재서 느리거나 샘플링에 걸린 것만 SqlTraceBuffer 에 남기는 DataSource.
+ * 바인딩 값은 실행 전까지 참조만 모아두고, 남길 때만 문자열로 만든다. (include-values=false 면 타입만)
+ * 실행 시간은 execute* 호출 시간이다. (ResultSet 을 읽는 시간은 포함하지 않는다)
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    private final SqlTraceBuffer buffer;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxValueLength;
+    private final boolean includeValues;
+
+    public TracingDataSource(DataSource target, SqlTraceBuffer buffer, SqlTraceProperties properties) {
+        super(target);
+        this.buffer = buffer;
+        this.sampleRate = properties.getSampleRate();
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.maxValueLength = properties.getMaxValueLength();
+        this.includeValues = properties.isIncludeValues();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("unwrap") && args[0] == Connection.class) {
+                return proxy;
+            }
+            Object result = invokeTarget(target, method, args);
+            // prepareStatement(sql, ...), prepareCall(sql, ...) 는 sql 을 알고, createStatement 는 execute 때 안다.
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[]{method.getReturnType()}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String sql;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private Object[] firstBatch;
+        private int batchSize;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                setParameter(index, name.equals("setNull") ? null : args[1]);
+                return invokeTarget(target, method, args);
+            }
+            if (name.equals("clearParameters")) {
+                parameterCount = 0;
+            } else if (name.equals("addBatch")) {
+                if (batchSize++ == 0) {
+                    firstBatch = Arrays.copyOf(parameters, parameterCount);
+                }
+            } else if (name.equals("clearBatch")) {
+                batchSize = 0;
+                firstBatch = null;
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            buffer.countStatement();
+            long start = System.nanoTime();
+            Throwable error = null;
+            try {
+                return invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                error = e;
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                boolean slow = elapsed >= slowThresholdNanos;
+                if (slow || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                    boolean batch = method.getName().equals("executeBatch") || method.getName().equals("executeLargeBatch");
+                    String executedSql = sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : null;
+                    buffer.add(new SqlTraceEntry(
+                            buffer.nextSequence(),
+                            Instant.now(),
+                            Thread.currentThread().getName(),
+                            executedSql,
+                            render(batch && firstBatch != null ? firstBatch : Arrays.copyOf(parameters, parameterCount)),
+                            batch ? batchSize : 0,
+                            elapsed / 1000,
+                            slow ? "slow" : "sampled",
+                            error != null ? error.toString() : null));
+                }
+                if (method.getName().endsWith("Batch")) {
+                    batchSize = 0;
+                    firstBatch = null;
+                }
+            }
+        }
+
+        private void setParameter(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            parameters[index - 1] = value;
+            parameterCount = Math.max(parameterCount, index);
+        }
+    }
+
+    private List<String> render(Object[] values) {
+        List<String> rendered = new ArrayList<>(values.length);
+        for (Object value : values) {
+            if (!includeValues) {
+                rendered.add(value == null ? "null" : "<" + value.getClass().getSimpleName() + ">");
+                continue;
+            }
+            String text = String.valueOf(value);
+            rendered.add(text.length() > maxValueLength ? text.substring(0, maxValueLength) + "..." : text);
+        }
+        return rendered;
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
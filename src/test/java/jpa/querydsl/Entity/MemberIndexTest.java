@@ -0,0 +1,111 @@
+package jpa.querydsl.Entity;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.repository.MemberRepository;
+import jpa.querydsl.repository.TeamIdResolver;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 회원 검색이 실제로 만드는 SQL 을 H2 EXPLAIN 으로 확인해서 조건마다 기대한 인덱스를 타는지 본다.
+@SpringBootTest
+@Transactional
+class MemberIndexTest {
+
+    @Autowired EntityManager em;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamIdResolver teamIdResolver;
+
+    @BeforeEach
+    public void before(){
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            teams.add(team);
+        }
+        for (int i = 0; i < 2000; i++) {
+            em.persist(new Member("member" + i, i % 80, teams.get(i % teams.size())));
+        }
+        em.flush();
+        em.clear();
+        jdbcTemplate.execute("analyze");
+    }
+
+    @Test
+    public void teamNameAndAge(){
+        // 팀 이름은 TeamIdResolver 가 먼저 team_id 로 바꾸고, 검색은 member 의 (team_id, age) 인덱스로 찾는다.
+        assertThat(explainSearch(condition(null, "team3", 20, 30))).contains("IDX_MEMBER_TEAM_AGE");
+
+        CapturedSql.clear();
+        teamIdResolver.invalidateAll();
+        teamIdResolver.resolve("team3");
+        assertThat(explain(CapturedSql.statements().get(0), List.of("team3"))).contains("IDX_TEAM_NAME");
+    }
+
+    @Test
+    public void username(){
+        assertThat(explainSearch(condition("member7", null, null, null))).contains("IDX_MEMBER_USERNAME");
+    }
+
+    @Test
+    public void ageRange(){
+        // 팀이 적어서 팀 테이블에서 시작해 팀별로 나이 범위를 찾는다. 어느 쪽이든 member 는 인덱스로 찾는다.
+        assertThat(explainSearch(condition(null, null, 10, 11))).containsAnyOf("IDX_MEMBER_AGE", "IDX_MEMBER_TEAM_AGE");
+    }
+
+    @Test
+    public void ageRangeCount(){
+        // 카운트 쿼리는 팀 조건이 없으면 team 을 조인하지 않는다.
+        CapturedSql.clear();
+        memberRepository.searchPageComplex(condition(null, null, 10, 11), PageRequest.of(1, 10));
+        String countSql = CapturedSql.statements().get(1);
+
+        assertThat(explain(countSql, List.of(10, 11))).contains("IDX_MEMBER_AGE");
+    }
+
+    private String explainSearch(MemberSearchCondition condition) {
+        Object teamId = condition.getTeamName() != null ? teamIdResolver.resolve(condition.getTeamName()).get(0) : null;
+        CapturedSql.clear();
+        memberRepository.search(condition);
+        List<String> statements = CapturedSql.statements();
+        String sql = statements.get(statements.size() - 1);
+
+        // 파라미터 순서는 검색 조건 순서 (username, teamName -> team_id, ageGoe, ageLoe)
+        List<Object> params = new ArrayList<>();
+        for (Object value : new Object[]{condition.getUsername(), teamId, condition.getAgeGoe(), condition.getAgeLoe()}) {
+            if (value != null) {
+                params.add(value);
+            }
+        }
+        return explain(sql, params);
+    }
+
+    private String explain(String sql, List<Object> params) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, params.toArray());
+        // 팀 테이블은 작아서 스캔해도 되지만 member 는 스캔하면 안된다.
+        assertThat(plan).as(plan).doesNotContain("PUBLIC.MEMBER.tableScan");
+        return plan;
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
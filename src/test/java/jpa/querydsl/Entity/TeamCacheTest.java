@@ -0,0 +1,74 @@
+package jpa.querydsl.Entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Dto.CacheRegionStats;
+import jpa.querydsl.controller.CacheStatsController;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 같은 트랜잭션에서 저장한 엔티티는 2차 캐시에 올라가지 않으므로 커밋해가며 검증한다.
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired CacheStatsController cacheStatsController;
+
+    Long memberId;
+    Long teamId;
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            Member member1 = new Member("user1", 10, teamA);
+            em.persist(member1);
+            teamId = teamA.getId();
+            memberId = member1.getId();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.remove(em.find(Member.class, memberId));
+            em.remove(em.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void teamIsReadFromSecondLevelCache(){
+        // 처음에는 DB 에서 읽고 캐시에 넣는다.
+        assertThat(findTeamNameOfMember()).isEqualTo("teamA");
+        assertThat(emf.getCache().contains(Team.class, teamId)).isTrue();
+
+        CapturedSql.clear();
+        assertThat(findTeamNameOfMember()).isEqualTo("teamA");
+
+        // member 조회만 나가고 team 은 2차 캐시에서 가져온다.
+        assertThat(CapturedSql.statements()).hasSize(1);
+        assertThat(CapturedSql.statements().get(0)).contains("from member");
+
+        CacheRegionStats teamStats = cacheStatsController.cacheStats().stream()
+                .filter(stats -> stats.getRegion().equals("team"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(teamStats.getHits()).isGreaterThanOrEqualTo(1);
+        assertThat(teamStats.getSize()).isGreaterThanOrEqualTo(1);
+    }
+
+    private String findTeamNameOfMember() {
+        return transactionTemplate.execute(status -> em.find(Member.class, memberId).getTeam().getName());
+    }
+}
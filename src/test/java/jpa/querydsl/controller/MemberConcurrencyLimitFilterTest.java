@@ -0,0 +1,92 @@
+package jpa.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberConcurrencyLimitFilterTest {
+
+    @Test
+    public void rejectsWhenAllPermitsAreInUse() throws Exception {
+        MemberConcurrencyLimitFilter filter = new MemberConcurrencyLimitFilter(1, 10, 8, Duration.ofMillis(100));
+
+        // 첫 요청이 커넥션을 잡고 있는 동안
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = new Thread(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            inChain.countDown();
+                            awaitQuietly(release);
+                        });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        first.start();
+        assertThat(inChain.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 두번째 요청은 기다리다가 503
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v3/members"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+
+        // 회원 API 가 아니면 제한하지 않는다.
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/cache/stats"), other, new MockFilterChain());
+        assertThat(other.getStatus()).isEqualTo(200);
+
+        release.countDown();
+        first.join();
+        assertThat(filter.availablePermits()).isEqualTo(1);
+
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v3/members/cursor"), accepted, new MockFilterChain());
+        assertThat(accepted.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void asyncRequestHoldsPermitUntilComplete() throws Exception {
+        MemberConcurrencyLimitFilter filter = new MemberConcurrencyLimitFilter(1, 10, 8, Duration.ofMillis(100));
+
+        // export 처럼 응답을 비동기로 쓰는 요청은 doFilter 가 돌아와도 끝난 게 아니다.
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/v1/members/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        assertThat(filter.availablePermits()).isZero();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void limitLeavesConnectionsForQueryExecutor(){
+        // 풀 10, 쿼리 스레드 8 이면 요청은 2개까지
+        assertThat(new MemberConcurrencyLimitFilter(0, 10, 8, Duration.ofMillis(100)).availablePermits()).isEqualTo(2);
+        assertThatThrownBy(() -> new MemberConcurrencyLimitFilter(5, 10, 8, Duration.ofMillis(100)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
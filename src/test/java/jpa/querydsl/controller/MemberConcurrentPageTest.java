@@ -0,0 +1,89 @@
+package jpa.querydsl.controller;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 커넥션 풀을 작게 잡고 동시 요청으로 가득 채워도 요청끼리 커넥션을 기다리며 멈추지 않는지 본다.
+// 요청 스레드는 OSIV 로 커넥션 1개를 잡은 채 카운트 쿼리(다른 커넥션)를 기다린다.
+@SpringBootTest(properties = {
+        "member.concurrency.enabled=true",
+        "member.concurrency.acquire-timeout=30s",
+        "member.query.concurrency-limit=2",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+@AutoConfigureMockMvc
+class MemberConcurrentPageTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 20; i++) {
+                em.persist(new Member("member" + i, i, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void saturatedPoolDoesNotDeadlock() throws Exception {
+        int requests = 16;
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                statuses.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        // 첫 페이지가 꽉 차므로 카운트 쿼리가 필요하다.
+                        return mockMvc.perform(get("/v3/members/concurrent").param("teamName", "teamA").param("size", "5"))
+                                .andReturn().getResponse().getStatus();
+                    } catch (Exception e) {
+                        return 500;
+                    }
+                }, clients));
+            }
+            start.countDown();
+
+            CompletableFuture.allOf(statuses.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+            // 커넥션 타임아웃(500)이나 거절(503) 없이 모두 처리된다.
+            assertThat(statuses).extracting(CompletableFuture::join).containsOnly(200);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package jpa.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void sortWhitelist() throws Exception {
+        mockMvc.perform(get("/v3/members").param("sort", "age,desc"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v3/members").param("sort", "teamName"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("sort", "unknown,desc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v3/members").param("sort", "age,desc", "username,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void cursorValidation() throws Exception {
+        mockMvc.perform(get("/v3/members/cursor").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v3/members/cursor").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        // 상한(max-page-size)으로 줄여서 처리한다. (size + 1 이 넘치지 않는다)
+        mockMvc.perform(get("/v3/members/cursor").param("size", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isOk());
+    }
+}
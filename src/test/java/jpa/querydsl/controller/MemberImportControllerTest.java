@@ -0,0 +1,42 @@
+package jpa.querydsl.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberImportControllerTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void chunkSize() throws Exception {
+        String csv = "username,age,teamName\nmember1,10,teamA\nmember2,20,teamA\nmember3,30,teamB\n";
+
+        mockMvc.perform(post("/v1/members/import").param("chunkSize", "2").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.chunks").value(2));
+        mockMvc.perform(post("/v1/members/import").param("chunkSize", "0").contentType("text/csv").content(csv))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/v1/members/import").param("chunkSize", "-1").contentType("application/x-ndjson").content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void invalidLine() throws Exception {
+        mockMvc.perform(post("/v1/members/import").contentType("text/csv").content("member1,10,teamA\nmember2,abc,teamA\n"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/v1/members/import").contentType("application/x-ndjson").content("{\"username\":\"member1\"\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,115 @@
+package jpa.querydsl.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.repository.MemberJpaRepository;
+import jpa.querydsl.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberRepositoryMetricsAspectTest {
+
+    @Autowired EntityManager em;
+    @Autowired MeterRegistry registry;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void before(){
+        // 다른 테스트 데이터와 섞이지 않는 팀 이름
+        Team teamA = new Team("metricsTeam");
+        em.persist(teamA);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("metricsMember" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void queryTimerIsTaggedWithShape(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("metricsTeam");
+        condition.setAgeGoe(5);
+
+        // 레지스트리는 컨텍스트를 공유하는 테스트 전체에서 쌓이므로 호출 전후 차이로 확인한다.
+        long searchCount = timerCount("MemberRepositoryImpl", "search", "teamName+ageGoe");
+        long builderCount = timerCount("MemberJpaRepository", "searchByBuilder", "teamName+ageGoe");
+        double rows = rowsTotal("MemberRepositoryImpl", "search");
+
+        memberRepository.search(condition);
+        memberJpaRepository.searchByBuilder(condition);
+
+        assertThat(timerCount("MemberRepositoryImpl", "search", "teamName+ageGoe")).isEqualTo(searchCount + 1);
+        assertThat(timerCount("MemberJpaRepository", "searchByBuilder", "teamName+ageGoe")).isEqualTo(builderCount + 1);
+        assertThat(rowsTotal("MemberRepositoryImpl", "search")).isEqualTo(rows + 5);
+    }
+
+    @Test
+    public void countQueryExecutedOrSkipped(){
+        double skipped = count("skipped");
+        double executed = count("executed");
+
+        // 첫 페이지가 다 차지 않으면 카운트 쿼리를 생략한다.
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 20));
+        // 첫 페이지가 꽉 차면 카운트 쿼리가 필요하다.
+        memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 3));
+
+        assertThat(count("skipped")).isEqualTo(skipped + 1);
+        assertThat(count("executed")).isEqualTo(executed + 1);
+    }
+
+    @Test
+    public void persistenceContextSize(){
+        double entities = persistenceContextTotal();
+
+        memberRepository.findByUsername("metricsMember1");
+
+        assertThat(persistenceContextTotal()).isEqualTo(entities + 1);
+    }
+
+    private long timerCount(String repository, String method, String shape) {
+        var timer = registry.find("member.repository.query")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("shape", shape)
+                .tag("outcome", "success")
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private double rowsTotal(String repository, String method) {
+        var summary = registry.find("member.repository.rows")
+                .tag("repository", repository)
+                .tag("method", method)
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    private double persistenceContextTotal() {
+        var summary = registry.find("member.repository.persistence.context")
+                .tag("repository", "MemberRepository")
+                .tag("method", "findByUsername")
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    private double count(String result) {
+        var counter = registry.find("member.repository.count.query")
+                .tag("method", "searchPageComplex")
+                .tag("result", result)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
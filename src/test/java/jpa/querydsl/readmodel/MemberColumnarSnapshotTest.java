@@ -0,0 +1,83 @@
+package jpa.querydsl.readmodel;
+
+import jpa.querydsl.Dto.MemberSearchCondition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberColumnarSnapshotTest {
+
+    record Row(long id, String username, int age, long teamId, String teamName) {}
+
+    @Test
+    public void filterMatchesRowByRowEvaluation(){
+        Random random = new Random(42);
+        List<Row> rows = new ArrayList<>();
+        MemberColumnarSnapshot.Builder builder = MemberColumnarSnapshot.builder();
+        for (int i = 0; i < 5000; i++) {
+            long teamId = random.nextInt(5) + 1;
+            // 팀 4, 5 는 이름이 같다.
+            String teamName = teamId >= 4 ? "teamD" : "team" + (char) ('A' + teamId - 1);
+            Row row = new Row(i + 1, "member" + random.nextInt(50), random.nextInt(80), teamId, teamName);
+            rows.add(row);
+            builder.add(row.id(), row.username(), row.age(), row.teamId(), row.teamName());
+        }
+        MemberColumnarSnapshot snapshot = builder.build();
+
+        assertThat(snapshot.size()).isEqualTo(5000);
+        assertThat(snapshot.teamCount()).isEqualTo(5);
+
+        for (MemberSearchCondition condition : List.of(
+                condition(null, null, null, null),
+                condition("member7", null, null, null),
+                condition(null, "teamD", null, null),
+                condition(null, "teamB", 20, 40),
+                condition("member3", "teamA", null, 30),
+                condition(null, null, 79, null),
+                condition(null, null, 50, 10),
+                condition("nobody", null, null, null),
+                condition(null, "noTeam", null, null))) {
+
+            BitSet expected = new BitSet();
+            for (int i = 0; i < rows.size(); i++) {
+                if (matches(rows.get(i), condition)) {
+                    expected.set(i);
+                }
+            }
+            assertThat(snapshot.filter(condition)).as(condition.toString()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void usernamesAreShared(){
+        MemberColumnarSnapshot snapshot = MemberColumnarSnapshot.builder()
+                .add(1, new String("member1"), 10, 1, "teamA")
+                .add(2, new String("member1"), 20, 2, "teamB")
+                .build();
+
+        assertThat(snapshot.getUsername(0)).isSameAs(snapshot.getUsername(1));
+        assertThat(snapshot.getTeamId(1)).isEqualTo(2);
+        assertThat(snapshot.teamNameOf(snapshot.getTeamCode(1))).isEqualTo("teamB");
+    }
+
+    private static boolean matches(Row row, MemberSearchCondition condition) {
+        return (condition.getUsername() == null || condition.getUsername().equals(row.username()))
+                && (condition.getTeamName() == null || condition.getTeamName().equals(row.teamName()))
+                && (condition.getAgeGoe() == null || row.age() >= condition.getAgeGoe())
+                && (condition.getAgeLoe() == null || row.age() <= condition.getAgeLoe());
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
@@ -0,0 +1,177 @@
+package jpa.querydsl.readmodel;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.repository.MemberRepository;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋 후 이벤트로 갱신되므로 트랜잭션을 커밋해가며 검증한다.
+@SpringBootTest(properties = "member.read-model.enabled=true")
+class MemberReadModelTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberReadModel memberReadModel;
+    @Autowired MemberRepository memberRepository;
+
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            teamIds.add(teamA.getId());
+            teamIds.add(teamB.getId());
+
+            for (int i = 0; i < 40; i++) {
+                em.persist(new Member("member" + (i % 10), i, i % 3 == 0 ? teamB : teamA));
+            }
+            em.persist(new Member("noTeam", 20));
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        memberReadModel.reload();
+    }
+
+    @Test
+    public void sameResultAsDatabaseSearch(){
+        assertThat(memberReadModel.isReady()).isTrue();
+
+        for (MemberSearchCondition condition : List.of(
+                condition(null, null, null, null),
+                condition("member3", null, null, null),
+                condition(null, "teamB", null, null),
+                condition(null, null, 10, 25),
+                condition(null, null, 35, null),
+                condition(null, null, null, 4),
+                condition("member3", "teamA", null, null),
+                condition(null, "teamA", 30, 39),
+                condition("member1", "teamB", 0, 100),
+                condition(null, null, 30, 10),
+                condition("nobody", null, null, null))) {
+
+            assertThat(memberReadModel.search(condition))
+                    .as(condition.toString())
+                    .isEqualTo(searchDatabase(condition));
+        }
+    }
+
+    @Test
+    public void followsCommittedChanges(){
+        Long memberId = transactionTemplate.execute(status -> {
+            Member member = em.createQuery("select m from Member m where m.age = 5", Member.class).getSingleResult();
+            member.setAge(50);
+            em.find(Team.class, teamIds.get(1)).setName("teamC");
+            return member.getId();
+        });
+
+        assertThat(memberReadModel.search(condition(null, null, 50, null)))
+                .extracting(MemberTeamDto::getMemberId)
+                .containsExactly(memberId);
+        assertThat(memberReadModel.search(condition(null, "teamB", null, null))).isEmpty();
+        assertThat(memberReadModel.search(condition(null, "teamC", null, null)))
+                .isEqualTo(searchDatabase(condition(null, "teamC", null, null)));
+
+        transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+
+        assertThat(memberReadModel.search(condition(null, null, 50, null))).isEmpty();
+        assertThat(memberReadModel.search(condition(null, null, null, null)))
+                .isEqualTo(searchDatabase(condition(null, null, null, null)));
+    }
+
+    @Test
+    public void reloadsAfterBulkOperation(){
+        MemberSearchCondition teamA = condition(null, "teamA", null, null);
+        memberRepository.bulkAddAge(teamA, 100);
+
+        assertThat(memberReadModel.search(condition(null, null, 100, null)))
+                .hasSize(searchDatabase(teamA).size())
+                .isEqualTo(searchDatabase(condition(null, null, 100, null)));
+
+        memberRepository.bulkDelete(teamA);
+
+        assertThat(memberReadModel.search(teamA)).isEmpty();
+        assertThat(memberReadModel.search(condition(null, null, null, null)))
+                .isEqualTo(searchDatabase(condition(null, null, null, null)));
+    }
+
+    @Test
+    public void searchAndChangesDuringReload() throws Exception {
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        AtomicInteger sizeDuringReload = new AtomicInteger();
+        AtomicReference<Long> insertedId = new AtomicReference<>();
+        try {
+            // 다시 읽는 도중에 다른 스레드가 검색하고 회원을 추가한다. 둘 다 적재가 끝날 때까지 기다리면 안 된다.
+            CapturedSql.beforeNextStatement(() -> {
+                Future<?> future = other.submit(() -> {
+                    sizeDuringReload.set(memberReadModel.size());
+                    insertedId.set(transactionTemplate.execute(status -> {
+                        Member member = new Member("duringReload", 77, em.find(Team.class, teamIds.get(0)));
+                        em.persist(member);
+                        return member.getId();
+                    }));
+                });
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            memberReadModel.reload();
+        } finally {
+            other.shutdownNow();
+        }
+
+        assertThat(sizeDuringReload.get()).isEqualTo(40);
+        assertThat(memberReadModel.search(condition("duringReload", null, null, null)))
+                .extracting(MemberTeamDto::getMemberId)
+                .containsExactly(insertedId.get());
+        assertThat(memberReadModel.search(condition(null, null, null, null)))
+                .isEqualTo(searchDatabase(condition(null, null, null, null)));
+    }
+
+    private List<MemberTeamDto> searchDatabase(MemberSearchCondition condition) {
+        List<MemberTeamDto> result = new ArrayList<>(memberRepository.search(condition));
+        result.sort(Comparator.comparing(MemberTeamDto::getMemberId));
+        return result;
+    }
+
+    private static MemberSearchCondition condition(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setTeamName(teamName);
+        condition.setAgeGoe(ageGoe);
+        condition.setAgeLoe(ageLoe);
+        return condition;
+    }
+}
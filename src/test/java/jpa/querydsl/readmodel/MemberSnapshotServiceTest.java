@@ -0,0 +1,63 @@
+package jpa.querydsl.readmodel;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "member.snapshot.max-age=100ms")
+class MemberSnapshotServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberSnapshotService memberSnapshotService;
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("member" + i, i, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        memberSnapshotService.refresh();
+    }
+
+    @Test
+    public void expiredSnapshotIsServedWhileRefreshing() throws InterruptedException {
+        MemberColumnarSnapshot first = memberSnapshotService.refresh();
+        assertThat(first.size()).isEqualTo(10);
+
+        transactionTemplate.executeWithoutResult(status ->
+                em.persist(new Member("member10", 10, em.find(Team.class, first.getTeamId(0)))));
+        Thread.sleep(200);
+
+        // 만료돼도 요청은 기다리지 않고 예전 스냅샷을 받는다. 새 스냅샷은 백그라운드에서 만든다.
+        assertThat(memberSnapshotService.current()).isSameAs(first);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        MemberColumnarSnapshot current = memberSnapshotService.current();
+        while (current == first && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            current = memberSnapshotService.current();
+        }
+        assertThat(current).isNotSameAs(first);
+        assertThat(current.size()).isEqualTo(11);
+    }
+}
@@ -0,0 +1,157 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberBulkResult;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 청크마다 커밋되므로 테스트 데이터는 커밋하고 지운다.
+@SpringBootTest
+class MemberBulkTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberRepository memberRepository;
+
+    Long teamAId;
+    Long teamBId;
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+            for (int i = 0; i < 25; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+            }
+            em.persist(new Member("noTeam", 30));
+        });
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void addAgeInChunks(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        List<MemberBulkResult> progress = new ArrayList<>();
+
+        MemberBulkResult result = memberRepository.bulkAddAge(condition, 100, 5, progress::add);
+
+        assertThat(result.getRows()).isEqualTo(13);
+        assertThat(result.isDone()).isTrue();
+        // teamA 회원 13명을 5명씩. (id 가 하나 걸러 있어도 빈 청크가 없다)
+        assertThat(result.getTotalChunks()).isEqualTo(3);
+        assertThat(progress).hasSize(3);
+        assertThat(progress).extracting(MemberBulkResult::getChunks).containsExactly(1L, 2L, 3L);
+        assertThat(progress.get(progress.size() - 1)).isEqualTo(result);
+
+        assertThat(memberRepository.search(condition)).extracting(MemberTeamDto::getAge).allMatch(age -> age >= 100);
+        condition.setTeamName("teamB");
+        assertThat(memberRepository.search(condition)).extracting(MemberTeamDto::getAge).allMatch(age -> age < 100);
+    }
+
+    @Test
+    public void deleteBySearchCondition(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        MemberBulkResult result = memberRepository.bulkDelete(condition, 7, progress -> { });
+
+        // search 결과와 같은 대상만 지운다. (팀 없는 회원은 남는다)
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(memberRepository.search(condition)).isEmpty();
+        assertThat(memberRepository.findByUsername("noTeam")).hasSize(1);
+        assertThat(memberRepository.count()).isEqualTo(21);
+    }
+
+    @Test
+    public void changeTeam(){
+        // 컬렉션 2차 캐시를 채워둔다.
+        assertThat(memberListSize(teamBId)).isEqualTo(12);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeLoe(9);
+
+        MemberBulkResult result = memberRepository.bulkChangeTeam(condition, teamBId);
+
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(memberListSize(teamBId)).isEqualTo(17);
+        assertThat(memberListSize(teamAId)).isEqualTo(8);
+
+        assertThatThrownBy(() -> memberRepository.bulkChangeTeam(condition, -1L))
+                .hasMessageContaining("팀이 없습니다");
+    }
+
+    @Test
+    public void noMatchingMembers(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("nobody");
+
+        MemberBulkResult result = memberRepository.bulkDelete(condition);
+
+        assertThat(result.getRows()).isZero();
+        assertThat(result.getChunks()).isZero();
+        assertThat(result.isDone()).isTrue();
+    }
+
+    @Test
+    public void persistenceContextIsClearedInCallerTransaction(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = memberRepository.findByUsername("member0").get(0);
+            assertThat(member.getAge()).isEqualTo(0);
+
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername("member0");
+            memberRepository.bulkAddAge(condition, 1);
+
+            // 벌크 전에 읽어둔 엔티티는 준영속이 되고, 다시 읽으면 DB 값이다.
+            assertThat(em.contains(member)).isFalse();
+            assertThat(em.find(Member.class, member.getId()).getAge()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    public void unflushedChangesInCallerTransactionAreKept(){
+        transactionTemplate.executeWithoutResult(status -> {
+            // 벌크 쿼리가 team 테이블을 보지 않으므로 자동 flush 되지 않는 변경
+            em.find(Team.class, teamAId).setName("teamZ");
+
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setUsername("member0");
+            memberRepository.bulkAddAge(condition, 1);
+        });
+
+        String teamName = transactionTemplate.execute(status -> em.find(Team.class, teamAId).getName());
+        assertThat(teamName).isEqualTo("teamZ");
+    }
+
+    private int memberListSize(Long teamId) {
+        return transactionTemplate.execute(status -> em.find(Team.class, teamId).getMemberList().size());
+    }
+}
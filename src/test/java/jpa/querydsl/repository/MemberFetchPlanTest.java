@@ -0,0 +1,117 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberFetchPlanTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Team teamC = new Team("teamC");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(teamC);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member1", 30, teamB));
+        em.persist(new Member("member1", 40, teamC));
+        em.persist(new Member("member1", 50));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void withoutPlanLoadsTeamsOneByOne(){
+        // N+1: 회원 조회 1번 + 팀마다 1번
+        assertThat(statementsToLoadTeams(MemberFetchPlan.NONE, memberJpaRepository::findAll)).isEqualTo(1 + 3);
+    }
+
+    @Test
+    public void teamPlanLoadsTeamsInSameQuery(){
+        for (Function<MemberFetchPlan, List<Member>> finder : List.<Function<MemberFetchPlan, List<Member>>>of(
+                memberJpaRepository::findAll,
+                memberJpaRepository::findAllQuerydsl,
+                plan -> memberJpaRepository.findByUsername("member1", plan),
+                plan -> memberJpaRepository.findByUsernameQuerydsl("member1", plan))) {
+            assertThat(statementsToLoadTeams(MemberFetchPlan.TEAM, finder)).isEqualTo(1);
+            em.clear();
+        }
+    }
+
+    @Test
+    public void teamWithMembersPlanLoadsMemberLists(){
+        for (Function<MemberFetchPlan, List<Member>> finder : List.<Function<MemberFetchPlan, List<Member>>>of(
+                memberJpaRepository::findAll,
+                memberJpaRepository::findAllQuerydsl,
+                plan -> memberJpaRepository.findByUsername("member1", plan),
+                plan -> memberJpaRepository.findByUsernameQuerydsl("member1", plan))) {
+            CapturedSql.clear();
+            List<Member> members = finder.apply(MemberFetchPlan.TEAM_WITH_MEMBERS);
+
+            assertThat(members).doesNotHaveDuplicates();
+            for (Member member : members) {
+                if (member.getTeam() != null) {
+                    assertThat(emf.getPersistenceUnitUtil().isLoaded(member.getTeam(), "memberList")).isTrue();
+                    assertThat(member.getTeam().getMemberList()).contains(member);
+                }
+            }
+            // 회원 + 팀 조회 1번, 팀들의 memberList 1번
+            assertThat(CapturedSql.statements()).hasSize(2);
+            em.clear();
+        }
+    }
+
+    @Test
+    public void membersWithoutTeamAreKept(){
+        assertThat(memberJpaRepository.findByUsernameQuerydsl("member1", MemberFetchPlan.TEAM))
+                .extracting(Member::getAge)
+                .containsExactlyInAnyOrder(10, 30, 40, 50);
+        em.clear();
+        assertThat(memberJpaRepository.findByUsername("member1", MemberFetchPlan.TEAM_WITH_MEMBERS))
+                .extracting(Member::getAge)
+                .containsExactlyInAnyOrder(10, 30, 40, 50);
+    }
+
+    @Test
+    public void springDataEntityGraph(){
+        CapturedSql.clear();
+        List<Member> members = memberRepository.findWithTeamByUsername("member1");
+        members.forEach(member -> assertThat(emf.getPersistenceUnitUtil().isLoaded(member, "team")).isTrue());
+        members.stream().filter(member -> member.getTeam() != null).forEach(member -> member.getTeam().getName());
+
+        assertThat(members).hasSize(4);
+        assertThat(CapturedSql.statements()).hasSize(1);
+    }
+
+    private long statementsToLoadTeams(MemberFetchPlan plan, Function<MemberFetchPlan, List<Member>> finder) {
+        CapturedSql.clear();
+        List<Member> members = finder.apply(plan);
+        members.stream()
+                .filter(member -> member.getTeam() != null)
+                .forEach(member -> member.getTeam().getName());
+        return CapturedSql.statements().size();
+    }
+}
@@ -0,0 +1,211 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.metrics.MemberQueryMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// 쿼리가 다른 스레드의 트랜잭션에서 실행되므로 테스트 데이터는 커밋하고 지운다.
+@SpringBootTest
+class MemberQueryExecutorTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired MemberQueryExecutor memberQueryExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberQueryMetrics metrics;
+
+    @Test
+    public void searchPageConcurrent(){
+        saveMembers();
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("teamA");
+
+            Page<MemberTeamDto> result = memberRepository.searchPageConcurrent(condition, PageRequest.of(1, 5));
+            Page<MemberTeamDto> expected = memberRepository.searchPageComplex(condition, PageRequest.of(1, 5));
+
+            assertThat(result.getTotalElements()).isEqualTo(13);
+            assertThat(result.getContent()).isEqualTo(expected.getContent());
+            assertThat(result.getTotalPages()).isEqualTo(expected.getTotalPages());
+        } finally {
+            deleteAll();
+        }
+    }
+
+    @Test
+    public void asyncSearchesOverlap(){
+        saveMembers();
+        try {
+            MemberSearchCondition teamA = new MemberSearchCondition();
+            teamA.setTeamName("teamA");
+            MemberSearchCondition old = new MemberSearchCondition();
+            old.setAgeGoe(20);
+
+            // 여러 검색을 한번에 걸어두고 모은다.
+            CompletableFuture<List<MemberTeamDto>> teamAMembers = memberRepository.searchAsync(teamA);
+            CompletableFuture<Page<MemberTeamDto>> firstPage = memberRepository.searchPageAsync(teamA, PageRequest.of(0, 5));
+            CompletableFuture<Page<MemberTeamDto>> lastPage = memberRepository.searchPageAsync(old, PageRequest.of(0, 10));
+            CompletableFuture<Slice<MemberTeamDto>> slice = memberRepository.searchSliceAsync(old, PageRequest.of(0, 3));
+            CompletableFuture.allOf(teamAMembers, firstPage, lastPage, slice).join();
+
+            assertThat(teamAMembers.join()).hasSize(13);
+            assertThat(firstPage.join().getTotalElements()).isEqualTo(13);
+            assertThat(firstPage.join().getContent())
+                    .isEqualTo(memberRepository.searchPageComplex(teamA, PageRequest.of(0, 5)).getContent());
+            // 첫 페이지가 덜 찼으므로 카운트 없이 전체 개수를 안다.
+            assertThat(lastPage.join().getTotalElements()).isEqualTo(5);
+            assertThat(slice.join().hasNext()).isTrue();
+        } finally {
+            deleteAll();
+        }
+    }
+
+    @Test
+    public void asyncPageFailsWithContentQuery(){
+        CompletableFuture<Page<String>> page = memberQueryExecutor.pageAsync("test",
+                () -> {
+                    throw new IllegalStateException("content failed");
+                },
+                () -> 10L,
+                PageRequest.of(0, 10));
+
+        assertThatThrownBy(page::join)
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("content failed");
+    }
+
+    @Test
+    public void contentFailureCancelsCount() throws InterruptedException {
+        CountDownLatch countStarted = new CountDownLatch(1);
+        CountDownLatch countInterrupted = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> memberQueryExecutor.page("test",
+                () -> {
+                    awaitQuietly(countStarted);
+                    throw new IllegalStateException("content failed");
+                },
+                () -> blockUntilInterrupted(countStarted, countInterrupted),
+                PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("content failed");
+
+        assertThat(countInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void countIsSkippedWhenNotNeeded(){
+        // 첫 페이지가 페이지 크기보다 작으면 전체 개수는 컨텐츠 개수라서 카운트를 기다리지 않는다.
+        long start = System.nanoTime();
+        Page<String> page = memberQueryExecutor.page("test",
+                () -> List.of("a", "b", "c"),
+                () -> blockUntilInterrupted(new CountDownLatch(1), new CountDownLatch(1)),
+                PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+    }
+
+    @Test
+    public void submitAsyncDoesNotBlockOnPlatformThreads(){
+        // JDK 17 에서는 스레드 풀 큐에 쌓이므로 동시 실행 수보다 많이 제출해도 호출한 스레드가 기다리지 않는다.
+        assumeTrue(Runtime.version().feature() < 21);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> queries = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            queries.add(memberQueryExecutor.submitAsync(() -> {
+                awaitQuietly(release);
+                return 1;
+            }));
+        }
+        assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(1);
+
+        release.countDown();
+        assertThat(queries.stream().mapToInt(CompletableFuture::join).sum()).isEqualTo(20);
+    }
+
+    @Test
+    public void fullQueueRejectsImmediately() throws Exception {
+        assumeTrue(Runtime.version().feature() < 21);
+        // 스레드 1개 + 큐 1칸
+        MemberQueryExecutor executor = new MemberQueryExecutor(transactionManager, metrics, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> running = executor.submitAsync(() -> {
+                awaitQuietly(release);
+                return 1;
+            });
+            CompletableFuture<Integer> queued = executor.submitAsync(() -> 2);
+
+            assertThatThrownBy(() -> executor.submitAsync(() -> 3))
+                    .isInstanceOf(MemberQueryRejectedException.class);
+
+            release.countDown();
+            assertThat(running.join() + queued.join()).isEqualTo(3);
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    private void saveMembers() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 25; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+    }
+
+    private void deleteAll() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    private static Long blockUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return -1L;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
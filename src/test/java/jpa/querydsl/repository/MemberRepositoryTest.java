@@ -1,6 +1,7 @@
 package jpa.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberCursorPage;
 import jpa.querydsl.Dto.MemberSearchCondition;
 import jpa.querydsl.Dto.MemberTeamDto;
 import jpa.querydsl.Entity.Member;
@@ -10,12 +11,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -106,4 +111,160 @@ class MemberRepositoryTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchPageSorted(){
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("user1", 20, teamA));
+        em.persist(new Member("user2", 10, teamA));
+        em.persist(new Member("user3", 20, teamB));
+        em.persist(new Member("user4", 30, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 나이가 같으면 member.id 순서 (마지막 정렬과 같은 방향)
+        PageRequest byAgeDesc = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+        assertThat(memberRepository.searchPageComplex(condition, byAgeDesc).getContent())
+                .extracting("username").containsExactly("user4", "user3", "user1");
+        assertThat(memberRepository.searchPageSimple(condition, byAgeDesc).getContent())
+                .extracting("username").containsExactly("user4", "user3", "user1");
+        assertThat(memberRepository.searchPageWindowed(condition, byAgeDesc).getContent())
+                .extracting("username").containsExactly("user4", "user3", "user1");
+        assertThat(memberRepository.searchSlice(condition, PageRequest.of(1, 3, Sort.by("teamId", "age"))).getContent())
+                .extracting("username").containsExactly("user4");
+
+        // 인덱스가 없는 정렬은 받지 않는다.
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 3, Sort.by("teamName"))))
+                .isInstanceOf(InvalidMemberSortException.class)
+                .hasMessageContaining("teamName");
+        assertThatThrownBy(() -> memberRepository.searchPageAsync(condition, PageRequest.of(0, 3, Sort.by("unknown"))))
+                .isInstanceOf(InvalidMemberSortException.class);
+    }
+
+    @Test
+    public void searchPageWindowed(){
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("user1", 10, teamA);
+        Member member2 = new Member("user2", 20, teamA);
+
+        Member member3 = new Member("user3", 30, teamB);
+        Member member4 = new Member("user4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        Page<MemberTeamDto> resultPage = memberRepository.searchPageWindowed(condition, PageRequest.of(0, 2));
+
+        assertThat(resultPage.getContent()).extracting("username").containsExactly("user2", "user3");
+        assertThat(resultPage.getContent()).extracting("teamName").containsExactly("teamA", "teamB");
+        assertThat(resultPage.getTotalElements()).isEqualTo(3);
+
+        Page<MemberTeamDto> outOfRange = memberRepository.searchPageWindowed(condition, PageRequest.of(5, 2));
+
+        assertThat(outOfRange.getContent()).isEmpty();
+        assertThat(outOfRange.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    public void streamSearch(){
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 50; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        try (Stream<MemberTeamDto> stream = memberRepository.streamSearch(condition, 10)) {
+            assertThat(stream.map(MemberTeamDto::getTeamName)).hasSize(25).containsOnly("teamA");
+        }
+    }
+
+    @Test
+    public void searchSlice(){
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("user1", 10, teamA);
+        Member member2 = new Member("user2", 20, teamA);
+
+        Member member3 = new Member("user3", 30, teamB);
+        Member member4 = new Member("user4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(condition, PageRequest.of(0, 3));
+
+        assertThat(first.getContent()).extracting("username").containsExactly("user1", "user2", "user3");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(condition, PageRequest.of(1, 3));
+
+        assertThat(last.getContent()).extracting("username").containsExactly("user4");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchAfter(){
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("user1", 10, teamA);
+        Member member2 = new Member("user2", 20, teamA);
+
+        Member member3 = new Member("user3", 30, teamB);
+        Member member4 = new Member("user4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberCursorPage first = memberRepository.searchAfter(condition, null, 3);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("user1", "user2", "user3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberCursorPage second = memberRepository.searchAfter(condition, first.getNextCursor(), 3);
+
+        assertThat(second.getContent()).extracting("username").containsExactly("user4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+
+        assertThatThrownBy(() -> memberRepository.searchAfter(condition, "not-a-cursor", 3))
+                .isInstanceOf(InvalidMemberCursorException.class)
+                .hasMessageContaining("잘못된 커서");
+        assertThatThrownBy(() -> memberRepository.searchAfter(condition, null, 0))
+                .isInstanceOf(InvalidMemberCursorException.class);
+    }
+
+}
@@ -0,0 +1,97 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSearchQueryBuilderTest {
+
+    // team_id 같은 컬럼명은 제외하고 team 테이블 자체만 찾는다.
+    private static final Pattern TEAM_TABLE = Pattern.compile("\\bteam\\b");
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("user1", 10, teamA));
+        em.persist(new Member("user2", 20, teamA));
+        em.persist(new Member("user3", 30, teamB));
+        em.persist(new Member("user4", 40, teamB));
+        em.persist(new Member("noTeam", 50)); // 팀 없는 회원은 검색 결과에도 카운트에도 빠져야 한다.
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void countWithoutTeamConditionTouchesOnlyMember(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        CapturedSql.clear();
+        // 첫 페이지가 꽉 차서 카운트 쿼리가 나간다.
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+
+        String countSql = countStatement();
+        assertThat(TEAM_TABLE.matcher(countSql).find()).as(countSql).isFalse();
+        assertThat(countSql).contains("team_id is not null");
+    }
+
+    @Test
+    public void countWithTeamConditionUsesTeamId(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        CapturedSql.clear();
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 1));
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+
+        // 팀 이름은 TeamIdResolver 가 team_id 로 바꿔서 카운트도 team 을 조인하지 않는다.
+        String countSql = countStatement();
+        assertThat(TEAM_TABLE.matcher(countSql).find()).as(countSql).isFalse();
+        assertThat(countSql).contains("team_id=?");
+    }
+
+    @Test
+    public void contentQueryKeepsTeamJoinForProjection(){
+        CapturedSql.clear();
+        List<MemberTeamDto> result = memberRepository.search(new MemberSearchCondition());
+
+        assertThat(result).extracting("username").containsExactly("user1", "user2", "user3", "user4");
+        assertThat(CapturedSql.statements()).hasSize(1);
+        assertThat(TEAM_TABLE.matcher(CapturedSql.statements().get(0)).find()).isTrue();
+    }
+
+    private String countStatement() {
+        List<String> counts = CapturedSql.statements().stream()
+                .filter(sql -> sql.contains("count("))
+                .toList();
+        assertThat(counts).hasSize(1);
+        return counts.get(0);
+    }
+}
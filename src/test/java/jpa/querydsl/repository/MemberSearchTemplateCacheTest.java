@@ -0,0 +1,73 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSearchTemplateCacheTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberSearchTemplateCache templateCache;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void sameResultAsQuerydslSearch(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+
+        List<MemberTeamDto> result = memberRepository.searchByTemplate(condition);
+
+        assertThat(result).extracting("username").containsExactly("member35", "member37", "member39");
+        assertThat(result).isEqualTo(memberRepository.search(condition));
+        assertThat(memberRepository.searchByTemplate(new MemberSearchCondition())).hasSize(100);
+    }
+
+    @Test
+    public void templateIsCompiledOncePerShape(){
+        long hits = templateCache.getHitCount();
+        long misses = templateCache.getMissCount();
+
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setUsername("member1");
+        first.setAgeGoe(0);
+        MemberSearchCondition sameShape = new MemberSearchCondition();
+        sameShape.setUsername("member2");
+        sameShape.setAgeGoe(1);
+
+        assertThat(memberRepository.searchByTemplate(first)).extracting("username").containsExactly("member1");
+        assertThat(memberRepository.searchByTemplate(sameShape)).extracting("username").containsExactly("member2");
+
+        // 다른 테스트가 이미 같은 모양을 만들어 뒀을 수도 있으므로 합계로 확인한다.
+        assertThat(templateCache.getMissCount() - misses).isLessThanOrEqualTo(1);
+        assertThat((templateCache.getHitCount() - hits) + (templateCache.getMissCount() - misses)).isEqualTo(2);
+    }
+}
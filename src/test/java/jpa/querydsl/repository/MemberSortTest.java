@@ -0,0 +1,58 @@
+package jpa.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberSortTest {
+
+    @Test
+    public void appendsMemberIdTieBreaker(){
+        assertThat(MemberSort.orderBy(Sort.unsorted())).containsExactly(member.id.asc());
+        assertThat(MemberSort.orderBy(Sort.by(Sort.Direction.DESC, "age")))
+                .containsExactly(member.age.desc(), member.id.desc());
+        // member.id 는 정렬 방향을 따른다.
+        assertThat(MemberSort.orderBy(Sort.by(Sort.Direction.DESC, "teamId", "age")))
+                .containsExactly(member.team.id.desc(), member.age.desc(), member.id.desc());
+        // memberId 로 이미 정렬하면 다시 붙이지 않는다.
+        assertThat(MemberSort.orderBy(Sort.by(Sort.Direction.DESC, "memberId")))
+                .containsExactly(member.id.desc());
+    }
+
+    @Test
+    public void nativeOrderBy(){
+        assertThat(MemberSort.orderBySql(Sort.unsorted())).isEqualTo(" order by m.member_id asc");
+        assertThat(MemberSort.orderBySql(Sort.by(Sort.Direction.DESC, "username", "age")))
+                .isEqualTo(" order by m.username desc, m.age desc, m.member_id desc");
+    }
+
+    @Test
+    public void rejectsNotIndexedProperties(){
+        assertThatThrownBy(() -> MemberSort.orderBy(Sort.by("teamName")))
+                .isInstanceOf(InvalidMemberSortException.class)
+                .hasMessage("정렬할 수 없는 속성입니다: teamName (가능: age, memberId, teamId, username)");
+        assertThatThrownBy(() -> MemberSort.orderBySql(Sort.by("m.username; drop table member")))
+                .isInstanceOf(InvalidMemberSortException.class);
+    }
+
+    @Test
+    public void rejectsNotIndexedCombinations(){
+        // 방향이 섞이면 인덱스를 한 방향으로 읽을 수 없다.
+        assertThatThrownBy(() -> MemberSort.orderBy(Sort.by(Sort.Direction.DESC, "age").and(Sort.by("username"))))
+                .isInstanceOf(InvalidMemberSortException.class)
+                .hasMessageStartingWith("인덱스로 정렬할 수 없는 조합입니다: age: DESC,username: ASC");
+        // 인덱스 컬럼 순서와 다른 조합
+        assertThatThrownBy(() -> MemberSort.orderBy(Sort.by("age", "username")))
+                .isInstanceOf(InvalidMemberSortException.class);
+        assertThatThrownBy(() -> MemberSort.orderBySql(Sort.by("username", "memberId")))
+                .isInstanceOf(InvalidMemberSortException.class);
+
+        assertThat(MemberSort.orderBy(Sort.by("teamId", "age", "username", "memberId")))
+                .containsExactly(member.team.id.asc(), member.age.asc(), member.username.asc(), member.id.asc());
+        assertThat(MemberSort.orderBy(Sort.by(Sort.Direction.DESC, "age", "memberId")))
+                .containsExactly(member.age.desc(), member.id.desc());
+    }
+}
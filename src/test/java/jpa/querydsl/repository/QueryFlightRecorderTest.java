@@ -0,0 +1,116 @@
+package jpa.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static jpa.querydsl.Entity.QMember.member;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class QueryFlightRecorderTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberJpaRepository memberJpaRepository;
+    @Autowired JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before(){
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 20; i++) {
+            em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void recordsQueryEventsWithSameResults() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+
+        // 기록 중이 아닐 때 (query.fetch())
+        List<MemberTeamDto> expected = memberRepository.search(condition);
+        Page<MemberTeamDto> expectedPage = memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(1, 5));
+
+        Path file = Files.createTempFile("member-query", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("jpa.querydsl.MemberQuery").withThreshold(Duration.ZERO);
+            recording.start();
+
+            // 기록 중일 때 (직접 직렬화하고 프로젝션)
+            assertThat(memberRepository.search(condition)).isEqualTo(expected);
+            Page<MemberTeamDto> page = memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(1, 5));
+            assertThat(page.getContent()).isEqualTo(expectedPage.getContent());
+            assertThat(page.getTotalElements()).isEqualTo(expectedPage.getTotalElements());
+            assertThat(memberJpaRepository.searchByBuilder(condition)).hasSameElementsAs(expected);
+            memberRepository.searchByTemplate(condition);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertThat(events).extracting(event -> event.getString("repository") + "." + event.getString("method"))
+                .containsExactly(
+                        "MemberRepositoryImpl.search",
+                        "MemberRepositoryImpl.searchPageComplex",
+                        "MemberRepositoryImpl.searchPageComplex.count",
+                        "MemberJpaRepository.searchByBuilder",
+                        "MemberRepositoryImpl.searchByTemplate");
+
+        RecordedEvent search = events.get(0);
+        assertThat(search.getString("shape")).isEqualTo("teamName+ageGoe");
+        assertThat(search.getBoolean("teamName")).isTrue();
+        assertThat(search.getBoolean("username")).isFalse();
+        assertThat(search.getLong("rows")).isEqualTo(expected.size());
+        assertThat(search.getLong("executionTime")).isPositive();
+        assertThat(events.get(2).getLong("rows")).isEqualTo(1);
+    }
+
+    @Test
+    public void recordingKeepsQuerySettings(){
+        try (Recording recording = new Recording()) {
+            recording.enable("jpa.querydsl.MemberQuery").withThreshold(Duration.ZERO);
+            recording.start();
+
+            // 기록 중에도 Querydsl 이 만든 쿼리를 쓰므로 락 모드 같은 설정이 빠지지 않는다.
+            CapturedSql.clear();
+            List<Member> members = QueryFlightRecorder.fetch("test", "lock", null, queryFactory
+                    .selectFrom(member)
+                    .where(member.username.eq("member1"))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE));
+
+            assertThat(members).extracting(Member::getUsername).containsExactly("member1");
+            assertThat(CapturedSql.statements()).singleElement().asString().contains("for update");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.CacheRegionStats;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.controller.CacheStatsController;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 커밋 후 이벤트로 캐시를 비우므로 트랜잭션을 커밋해가며 검증한다.
+@SpringBootTest
+class TeamIdResolverTest {
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired TeamIdResolver teamIdResolver;
+    @Autowired MemberRepository memberRepository;
+    @Autowired CacheStatsController cacheStatsController;
+
+    Long teamAId;
+
+    @BeforeEach
+    public void before(){
+        transactionTemplate.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            teamAId = teamA.getId();
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+        });
+        teamIdResolver.invalidateAll();
+    }
+
+    @AfterEach
+    public void after(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+        teamIdResolver.invalidateAll();
+    }
+
+    @Test
+    public void cachesTeamIdsAndNegativeResults(){
+        assertThat(teamIdResolver.resolve("teamA")).containsExactly(teamAId);
+        assertThat(teamIdResolver.resolve("nobody")).isEmpty();
+
+        CapturedSql.clear();
+        assertThat(teamIdResolver.resolve("teamA")).containsExactly(teamAId);
+        assertThat(teamIdResolver.resolve("nobody")).isEmpty();
+        assertThat(CapturedSql.statements()).isEmpty();
+
+        CacheRegionStats stats = cacheStatsController.cacheStats().stream()
+                .filter(region -> region.getRegion().equals(TeamIdResolver.CACHE_NAME))
+                .findFirst()
+                .orElseThrow();
+        assertThat(stats.getHits()).isGreaterThanOrEqualTo(2);
+        assertThat(stats.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void unknownTeamSkipsDatabase(){
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("nobody");
+        teamIdResolver.resolve("nobody");
+
+        CapturedSql.clear();
+        assertThat(memberRepository.search(condition)).isEmpty();
+        assertThat(memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(memberRepository.searchSlice(condition, PageRequest.of(0, 10)).hasContent()).isFalse();
+        assertThat(CapturedSql.statements()).isEmpty();
+    }
+
+    @Test
+    public void committedTeamWritesInvalidate(){
+        assertThat(teamIdResolver.resolve("teamB")).isEmpty();
+
+        // 새 팀이 커밋되면 없다고 캐시해둔 이름도 다시 찾는다.
+        Long teamBId = transactionTemplate.execute(status -> {
+            Team teamB = new Team("teamB");
+            em.persist(teamB);
+            return teamB.getId();
+        });
+        assertThat(teamIdResolver.resolve("teamB")).containsExactly(teamBId);
+
+        // 이름을 바꾸면 예전 이름은 없는 팀이 된다.
+        transactionTemplate.executeWithoutResult(status -> em.find(Team.class, teamBId).setName("teamC"));
+        assertThat(teamIdResolver.resolve("teamB")).isEmpty();
+        assertThat(teamIdResolver.resolve("teamC")).containsExactly(teamBId);
+    }
+
+    @Test
+    public void invalidationDuringLoadIsNotOverwritten(){
+        // 팀 id 를 읽는 도중 다른 트랜잭션의 팀 변경이 커밋되어 캐시가 비워지면, 읽은 값은 넣지 않는다.
+        CapturedSql.beforeNextStatement(teamIdResolver::invalidateAll);
+        assertThat(teamIdResolver.resolve("teamA")).containsExactly(teamAId);
+        assertThat(teamIdResolver.size()).isZero();
+
+        assertThat(teamIdResolver.resolve("teamA")).containsExactly(teamAId);
+        assertThat(teamIdResolver.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void unflushedTeamWritesAreVisible(){
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+        MemberSearchCondition teamZ = new MemberSearchCondition();
+        teamZ.setTeamName("teamZ");
+        // 없다고 캐시해둔다.
+        assertThat(memberRepository.search(teamB)).isEmpty();
+        assertThat(memberRepository.search(teamZ)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Team team = new Team("teamB");
+            em.persist(team);
+            em.persist(new Member("member3", 30, team));
+            // flush 전이어도 검색에 보여야 한다.
+            assertThat(memberRepository.search(teamB)).extracting("username").containsExactly("member3");
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Team.class, teamAId).setName("teamZ");
+            assertThat(memberRepository.search(teamZ)).extracting("username").containsExactly("member1", "member2");
+            status.setRollbackOnly();
+        });
+
+        // 롤백된 변경은 캐시에 남지 않는다.
+        assertThat(memberRepository.search(teamB)).isEmpty();
+        assertThat(memberRepository.search(teamZ)).isEmpty();
+    }
+
+    @Test
+    public void uncommittedTeamsAreNotCached(){
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Team("teamD"));
+            // 같은 트랜잭션에서는 보이지만
+            assertThat(teamIdResolver.resolve("teamD")).hasSize(1);
+            status.setRollbackOnly();
+        });
+        // 롤백됐으므로 캐시에 남으면 안된다.
+        assertThat(teamIdResolver.resolve("teamD")).isEmpty();
+    }
+}
@@ -0,0 +1,87 @@
+package jpa.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpa.querydsl.Dto.MemberDto;
+import jpa.querydsl.Dto.TeamMembersDto;
+import jpa.querydsl.Entity.Member;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.support.CapturedSql;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired EntityManager em;
+    @Autowired EntityManagerFactory emf;
+    @Autowired TeamRepository teamRepository;
+
+    @Test
+    public void teamsWithMembers(){
+        saveTeams(3, 2);
+
+        Page<TeamMembersDto> page = teamRepository.findTeamsWithMembers(PageRequest.of(0, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(TeamMembersDto::getName).containsExactly("team0", "team1");
+        assertThat(page.getContent().get(1).getMembers())
+                .extracting(MemberDto::getUsername)
+                .containsExactly("member1-0", "member1-1");
+    }
+
+    @Test
+    public void statementCountDoesNotGrowWithTeams(){
+        saveTeams(5, 3);
+        int fewTeams = statementsToLoad(5);
+
+        saveTeams(Team.MEMBER_LIST_BATCH_SIZE - 5, 3);
+        int manyTeams = statementsToLoad(Team.MEMBER_LIST_BATCH_SIZE);
+
+        // 팀 쿼리 1번 + 회원 IN 쿼리 1번 + 카운트 1번 (페이지가 꽉 찼다)
+        assertThat(fewTeams).isEqualTo(3);
+        assertThat(manyTeams).isEqualTo(fewTeams);
+    }
+
+    @Test
+    public void pageLargerThanBatchSize(){
+        saveTeams(Team.MEMBER_LIST_BATCH_SIZE + 10, 1);
+
+        // memberList 의 @BatchSize 를 넘는 페이지도 회원 쿼리는 한번이다.
+        assertThat(statementsToLoad(Team.MEMBER_LIST_BATCH_SIZE + 10)).isEqualTo(3);
+    }
+
+    private int statementsToLoad(int pageSize) {
+        em.flush();
+        em.clear();
+        // 2차 캐시에 memberList 가 있으면 쿼리 수가 달라지므로 비우고 잰다.
+        emf.getCache().evictAll();
+        CapturedSql.clear();
+
+        Page<TeamMembersDto> page = teamRepository.findTeamsWithMembers(PageRequest.of(0, pageSize));
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getMembers()).isNotEmpty());
+        return CapturedSql.statements().size();
+    }
+
+    private void saveTeams(int teamCount, int membersPerTeam) {
+        long saved = teamRepository.count();
+        for (int i = 0; i < teamCount; i++) {
+            Team team = new Team("team" + (saved + i));
+            em.persist(team);
+            for (int j = 0; j < membersPerTeam; j++) {
+                em.persist(new Member("member" + (saved + i) + "-" + j, j, team));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package jpa.querydsl.service;
+
+import jakarta.persistence.EntityManager;
+import jpa.querydsl.Dto.MemberImportResult;
+import jpa.querydsl.Dto.MemberSearchCondition;
+import jpa.querydsl.Dto.MemberTeamDto;
+import jpa.querydsl.Entity.Team;
+import jpa.querydsl.repository.MemberRepository;
+import jpa.querydsl.service.MemberImportService.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberImportServiceTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberImportService memberImportService;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void importCsv(){
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        StringBuilder csv = new StringBuilder("username,age,teamName\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("member").append(i).append(',').append(i).append(',').append(i % 2 == 0 ? "teamA" : "teamB").append('\n');
+        }
+
+        MemberImportResult result = memberImportService.importMembers(new StringReader(csv.toString()), Format.CSV, 10);
+
+        assertThat(result.getRows()).isEqualTo(25);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(result.getTeamsCreated()).isEqualTo(1); // teamA 는 이미 있으므로 teamB 만 새로 만든다.
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        List<MemberTeamDto> teamAMembers = memberRepository.search(condition);
+        assertThat(teamAMembers).hasSize(13);
+        assertThat(teamAMembers).extracting("teamId").containsOnly(teamA.getId());
+    }
+
+    @Test
+    public void importNdjson(){
+        String ndjson = """
+                {"username":"member1","age":10,"teamName":"teamC"}
+                {"username":"member2","age":20,"teamName":"teamC"}
+                {"username":"member3","age":30}
+                """;
+
+        MemberImportResult result = memberImportService.importMembers(new StringReader(ndjson), Format.NDJSON, 10);
+
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(result.getTeamsCreated()).isEqualTo(1);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        assertThat(memberRepository.search(condition)).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void invalidLine(){
+        String csv = "member1,10,teamA\nmember2,abc,teamA\n";
+
+        assertThatThrownBy(() -> memberImportService.importMembers(new StringReader(csv), Format.CSV, 10))
+                .isInstanceOf(InvalidImportLineException.class)
+                .hasMessageContaining("2번째 줄");
+    }
+
+    @Test
+    public void invalidChunkSize(){
+        assertThatThrownBy(() -> memberImportService.importMembers(new StringReader("member1,10,teamA\n"), Format.CSV, 0))
+                .isInstanceOf(InvalidChunkSizeException.class)
+                .hasMessage("chunkSize 는 1 이상이어야 합니다: 0");
+    }
+}
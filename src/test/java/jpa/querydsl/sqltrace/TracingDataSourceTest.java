@@ -0,0 +1,109 @@
+package jpa.querydsl.sqltrace;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TracingDataSourceTest {
+
+    @Test
+    public void sampledStatementKeepsBindValues(){
+        SqlTraceBuffer buffer = new SqlTraceBuffer(16);
+        JdbcTemplate jdbc = jdbc("sampled", buffer, 1.0, Duration.ofHours(1));
+
+        jdbc.update("create table member_trace (id bigint, username varchar(20))");
+        jdbc.update("insert into member_trace values (?, ?)", 1L, "member1");
+
+        SqlTraceEntry latest = buffer.recent().get(0);
+        assertThat(latest.sql()).isEqualTo("insert into member_trace values (?, ?)");
+        assertThat(latest.parameters()).containsExactly("1", "member1");
+        assertThat(latest.reason()).isEqualTo("sampled");
+        assertThat(buffer.getStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void onlySlowStatementsWhenNotSampled(){
+        SqlTraceBuffer buffer = new SqlTraceBuffer(16);
+
+        JdbcTemplate fast = jdbc("slow", buffer, 0.0, Duration.ofHours(1));
+        fast.update("create table member_trace (id bigint)");
+        assertThat(buffer.recent()).isEmpty();
+        assertThat(buffer.getStatementCount()).isEqualTo(1);
+
+        // 기준이 0 이면 모든 SQL 이 느린 SQL 이다.
+        JdbcTemplate slow = jdbc("slow", buffer, 0.0, Duration.ZERO);
+        slow.queryForList("select * from member_trace where id = ?", 1L);
+        assertThat(buffer.recent()).extracting(SqlTraceEntry::reason).containsExactly("slow");
+        assertThat(buffer.getSlowCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void batchRecordsSizeAndFirstBindValues(){
+        SqlTraceBuffer buffer = new SqlTraceBuffer(16);
+        JdbcTemplate jdbc = jdbc("batch", buffer, 1.0, Duration.ofHours(1));
+
+        jdbc.update("create table member_trace (id bigint, username varchar(20))");
+        jdbc.batchUpdate("insert into member_trace values (?, ?)",
+                List.of(new Object[]{1L, "member1"}, new Object[]{2L, "member2"}, new Object[]{3L, "member3"}));
+
+        SqlTraceEntry latest = buffer.recent().get(0);
+        assertThat(latest.batchSize()).isEqualTo(3);
+        assertThat(latest.parameters()).containsExactly("1", "member1");
+    }
+
+    @Test
+    public void ringBufferKeepsNewest(){
+        SqlTraceBuffer buffer = new SqlTraceBuffer(4);
+        JdbcTemplate jdbc = jdbc("ring", buffer, 1.0, Duration.ofHours(1));
+
+        for (int i = 0; i < 10; i++) {
+            jdbc.queryForObject("select ?", Integer.class, i);
+        }
+
+        assertThat(buffer.capacity()).isEqualTo(4);
+        assertThat(buffer.recent())
+                .extracting(entry -> entry.parameters().get(0))
+                .containsExactly("9", "8", "7", "6");
+        assertThat(buffer.getSampledCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void bindValuesAreMaskedByDefault(){
+        SqlTraceBuffer buffer = new SqlTraceBuffer(16);
+        SqlTraceProperties properties = new SqlTraceProperties();
+        properties.setSampleRate(1.0);
+        JdbcTemplate jdbc = new JdbcTemplate(new TracingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:masked;DB_CLOSE_DELAY=-1", "sa", ""), buffer, properties));
+
+        jdbc.update("create table member_trace (id bigint, username varchar(20))");
+        jdbc.update("insert into member_trace values (?, ?)", 1L, null);
+        jdbc.update("insert into member_trace values (?, ?)", 2L, "member1");
+
+        assertThat(buffer.recent().get(0).parameters()).containsExactly("<Long>", "<String>");
+        assertThat(buffer.recent().get(1).parameters()).containsExactly("<Long>", "null");
+    }
+
+    @Test
+    public void endpointRejectsNegativeLimit(){
+        SqlTraceEndpoint endpoint = new SqlTraceEndpoint(new SqlTraceBuffer(16), new SqlTraceProperties());
+
+        assertThat(endpoint.trace(0).get("entries")).asList().isEmpty();
+        assertThatThrownBy(() -> endpoint.trace(-1)).isInstanceOf(InvalidEndpointRequestException.class);
+    }
+
+    private static JdbcTemplate jdbc(String name, SqlTraceBuffer buffer, double sampleRate, Duration slowThreshold) {
+        SqlTraceProperties properties = new SqlTraceProperties();
+        properties.setIncludeValues(true);
+        properties.setSampleRate(sampleRate);
+        properties.setSlowThreshold(slowThreshold);
+        DriverManagerDataSource target = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        return new JdbcTemplate(new TracingDataSource(target, buffer, properties));
+    }
+}
@@ -0,0 +1,42 @@
+package jpa.querydsl.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 테스트용 StatementInspector. 하이버네이트가 실제로 DB에 보내는 SQL을 모아둔다.
+ * (test application.yml 의 hibernate.session_factory.statement_inspector 로 등록)
+ */
+public class CapturedSql implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    private static final AtomicReference<Runnable> beforeNext = new AtomicReference<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        Runnable action = beforeNext.getAndSet(null);
+        if (action != null) {
+            action.run();
+        }
+        return sql;
+    }
+
+    /**
+     * 다음 SQL 이 실행되기 직전에 한번 action 을 실행한다. (쿼리 도중에 다른 일이 끼어드는 경우를 흉내낼 때)
+     */
+    public static void beforeNextStatement(Runnable action) {
+        beforeNext.set(action);
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(statements);
+    }
+}